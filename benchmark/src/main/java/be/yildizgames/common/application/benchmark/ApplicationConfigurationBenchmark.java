@@ -0,0 +1,112 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2021-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.benchmark;
+
+import be.yildizgames.common.application.Application;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cost of merging the default configuration, the logger configuration and the arguments when the application is prepared.
+ * The configuration file is read from the config directory of the working directory, it is created if missing.
+ *
+ * @author Grégory Van den Borre
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApplicationConfigurationBenchmark {
+
+    /**
+     * Directory where the configuration file is stored.
+     */
+    private static final String CONFIGURATION_DIRECTORY = "config";
+
+    /**
+     * Number of default properties.
+     */
+    @Param({"10", "100"})
+    public int properties;
+
+    /**
+     * Default configuration.
+     */
+    private Properties defaults;
+
+    /**
+     * Arguments overriding half of the default properties.
+     */
+    private String[] args;
+
+    /**
+     * Configuration directory, null if it existed before the benchmark.
+     */
+    private Path createdDirectory;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        var directory = Path.of(CONFIGURATION_DIRECTORY);
+        if (Files.notExists(directory)) {
+            this.createdDirectory = Files.createDirectory(directory);
+        }
+        this.defaults = new Properties();
+        this.args = new String[this.properties / 2];
+        for (var i = 0; i < this.properties; i++) {
+            this.defaults.setProperty("benchmark.key." + i, "value" + i);
+            if (i < this.args.length) {
+                this.args[i] = "benchmark.key." + i + "=override" + i;
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (this.createdDirectory != null) {
+            try (Stream<Path> paths = Files.list(this.createdDirectory)) {
+                for (var path : paths.toList()) {
+                    Files.delete(path);
+                }
+            }
+            Files.delete(this.createdDirectory);
+        }
+    }
+
+    @Benchmark
+    public Properties withConfiguration() {
+        return Application.prepare("benchmark").withConfiguration(this.args, this.defaults).getConfiguration();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2019-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.benchmark;
+
+import be.yildizgames.common.application.helper.network.SocketAvailabilityChecker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reading the availability status on the hot path, from one thread and from all the cores.
+ * The throughput per thread is expected to stay the same whatever the number of threads, as the status is read
+ * without lock nor shared write.
+ *
+ * @author Grégory Van den Borre
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SocketAvailabilityCheckerBenchmark {
+
+    /**
+     * Local server the checked resource points to.
+     */
+    private ServerSocket server;
+
+    /**
+     * Checker checking on demand, the last check stays valid during the benchmark.
+     */
+    private SocketAvailabilityChecker onDemand;
+
+    /**
+     * Checker refreshed in background.
+     */
+    private SocketAvailabilityChecker background;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        var url = "http://localhost:" + this.server.getLocalPort();
+        this.onDemand = new SocketAvailabilityChecker(() -> url);
+        this.onDemand.isOnline();
+        this.background = new SocketAvailabilityChecker(() -> url).withBackgroundRefresh();
+        while (this.background.isChecking()) {
+            Thread.onSpinWait();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.background.stopBackgroundRefresh();
+        this.server.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean onDemandSingleThread() {
+        return this.onDemand.isOnline();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean onDemandAllCores() {
+        return this.onDemand.isOnline();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean backgroundSingleThread() {
+        return this.background.isOnline();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean backgroundAllCores() {
+        return this.background.isOnline();
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2021-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.benchmark;
+
+import be.yildizgames.common.application.helper.updater.UpdateDownloadListener;
+import be.yildizgames.common.application.helper.updater.UpdateHelper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.update4j.Configuration;
+import org.update4j.FileMetadata;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Cost of an update check when the application is up to date, the most frequent case at startup,
+ * against a local HTTP server standing in for the update server.
+ * The manifest parsing is measured separately, the check also includes the HTTP exchange and the local files verification.
+ *
+ * @author Grégory Van den Borre
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UpdateHelperBenchmark {
+
+    /**
+     * Entity tag of the served manifest.
+     */
+    private static final String ETAG = "\"benchmark\"";
+
+    /**
+     * A negative delay disables the throttle, so every call checks the server.
+     */
+    private static final Duration NO_THROTTLE = Duration.ofDays(-1);
+
+    /**
+     * Number of files in the manifest.
+     */
+    @Param({"10", "100"})
+    public int files;
+
+    /**
+     * true to keep a local copy of the manifest, revalidated with its entity tag.
+     */
+    @Param({"false", "true"})
+    public boolean manifestCache;
+
+    /**
+     * Directory of the installed files and of the manifest cache.
+     */
+    private Path directory;
+
+    /**
+     * Local update server.
+     */
+    private HttpServer server;
+
+    /**
+     * Manifest served by the update server.
+     */
+    private String manifest;
+
+    /**
+     * Url of the manifest.
+     */
+    private String url;
+
+    /**
+     * Helper checking the updates.
+     */
+    private UpdateHelper helper;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.directory = Files.createTempDirectory("update-benchmark");
+        var installed = Files.createDirectories(this.directory.resolve("app"));
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        var base = "http://localhost:" + this.server.getAddress().getPort() + "/";
+        this.url = base + "update.xml";
+        var builder = Configuration.builder().baseUri(base).basePath(installed);
+        var content = "x".repeat(4096);
+        for (var i = 0; i < this.files; i++) {
+            var file = Files.writeString(installed.resolve("file" + i + ".jar"), content);
+            builder.file(FileMetadata.readFrom(file).uri(base + file.getFileName()).path(file.getFileName()));
+        }
+        var writer = new StringWriter();
+        builder.build().write(writer);
+        this.manifest = writer.toString();
+        this.server.createContext("/update.xml", this::serveManifest);
+        this.server.start();
+        this.helper = new UpdateHelper();
+        if (this.manifestCache) {
+            this.helper.withManifestCache(this.directory.resolve("cache"));
+        }
+        var failure = new AtomicReference<Throwable>();
+        this.helper.download(this.url, this.archive(), NO_THROTTLE, 5000, List.of(new UpdateDownloadListener() {
+            @Override
+            public void downloadFailure(Throwable t) {
+                failure.set(t);
+            }
+        }));
+        if (failure.get() != null) {
+            throw new IllegalStateException("The update check failed against the local server.", failure.get());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.server.stop(0);
+        try (Stream<Path> paths = Files.walk(this.directory)) {
+            for (var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public Configuration parseManifest() throws IOException {
+        return Configuration.read(new StringReader(this.manifest));
+    }
+
+    @Benchmark
+    public boolean upToDateCheck() {
+        return this.helper.download(this.url, this.archive(), NO_THROTTLE, 5000, List.of());
+    }
+
+    /**
+     * Provide the archive name, never created as the application is up to date.
+     *
+     * @return The archive name.
+     */
+    private String archive() {
+        return this.directory.resolve("update.zip").toString();
+    }
+
+    /**
+     * Serve the manifest, or a not modified status when the client already has it.
+     *
+     * @param exchange Request to answer.
+     * @throws IOException If the response could not be sent.
+     */
+    private void serveManifest(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            exchange.getResponseHeaders().add("ETag", ETAG);
+            if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+            var body = this.manifest.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2021-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.updater;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.update4j.Configuration;
+import org.update4j.FileMetadata;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of dispatching the download progress events to the listeners, from one download thread and from all the cores,
+ * as the parallel downloads share the notifier.
+ * This benchmark is in the updater package as the notifier is package private.
+ *
+ * @author Grégory Van den Borre
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UpdateHandlerNotifierBenchmark {
+
+    /**
+     * Directory of the downloaded file.
+     */
+    private Path directory;
+
+    /**
+     * Downloaded file.
+     */
+    private FileMetadata file;
+
+    /**
+     * Notifier with three listeners consuming the events.
+     */
+    private UpdateHandlerNotifier notifier;
+
+    /**
+     * Listener wrapped in an asynchronous listener.
+     */
+    private AsyncUpdateDownloadListener async;
+
+    /**
+     * Notifier dispatching to the asynchronous listener.
+     */
+    private UpdateHandlerNotifier asyncNotifier;
+
+    @Setup(Level.Trial)
+    public void setup(Blackhole blackhole) throws IOException {
+        this.directory = Files.createTempDirectory("notifier-benchmark");
+        var source = Files.writeString(this.directory.resolve("file.txt"), "content");
+        this.file = Configuration.builder()
+                .file(FileMetadata.readFrom(source).uri(source.toUri()).path(source))
+                .build()
+                .getFiles()
+                .getFirst();
+        UpdateDownloadListener listener = new UpdateDownloadListener() {
+            @Override
+            public void fileUpdated(Path file, int percent) {
+                blackhole.consume(percent);
+            }
+        };
+        this.notifier = new UpdateHandlerNotifier(List.of(listener, listener, listener));
+        this.async = new AsyncUpdateDownloadListener(listener);
+        this.asyncNotifier = new UpdateHandlerNotifier(List.of(this.async));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.async.close();
+        Files.deleteIfExists(this.directory.resolve("file.txt"));
+        Files.deleteIfExists(this.directory);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void progressSingleThread() {
+        this.notifier.updateDownloadFileProgress(this.file, 0.5f);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void progressAllCores() {
+        this.notifier.updateDownloadFileProgress(this.file, 0.5f);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void asyncProgressAllCores() {
+        this.asyncNotifier.updateDownloadFileProgress(this.file, 0.5f);
+    }
+}
@@ -18,10 +18,14 @@ package be.yildizgames.common.application;
 import be.yildizgames.common.application.helper.cli.Banner;
 import be.yildizgames.common.application.helper.cli.BannerLine;
 import be.yildizgames.common.application.helper.logging.LoggerPropertiesConsoleFile;
+import be.yildizgames.common.application.helper.restarter.ClassDataSharing;
+import be.yildizgames.common.application.helper.restarter.HandoffRestarter;
 import be.yildizgames.common.application.helper.splashscreen.EmptySplashScreen;
 import be.yildizgames.common.application.helper.splashscreen.SplashScreenProvider;
 import be.yildizgames.common.application.helper.splashscreen.UpdateSplashScreen;
+import be.yildizgames.common.application.helper.updater.AsyncUpdateDownloadListener;
 import be.yildizgames.common.application.helper.updater.UpdateHelper;
+import be.yildizgames.common.application.helper.updater.UpdatePhaseListener;
 import be.yildizgames.common.configuration.ConfigurationNotFoundAdditionalBehavior;
 import be.yildizgames.common.configuration.ConfigurationNotFoundDefault;
 import be.yildizgames.common.configuration.ConfigurationRetriever;
@@ -52,15 +56,61 @@ import java.util.stream.Stream;
  */
 public class Application {
 
+    /**
+     * Name of the built-in startup task displaying the banner.
+     */
+    public static final String STARTUP_TASK_BANNER = "banner";
+
+    /**
+     * Name of the built-in startup task logging the git properties, run after the banner to keep the console output in order.
+     */
+    public static final String STARTUP_TASK_GIT = "git";
+
+    /**
+     * Name of the built-in startup task building and displaying the splash screen.
+     */
+    public static final String STARTUP_TASK_SPLASH_SCREEN = "splashscreen";
+
+    /**
+     * Name of the built-in startup task checking and applying the update.
+     */
+    public static final String STARTUP_TASK_UPDATE = "update";
+
+    /**
+     * Name of the phase loading the configuration.
+     */
+    public static final String STARTUP_PHASE_CONFIGURATION = "configuration";
+
+    /**
+     * Name of the phase configuring the logging.
+     */
+    public static final String STARTUP_PHASE_LOGGING = "logging";
+
+    /**
+     * Name of the phase running the starter.
+     */
+    public static final String STARTUP_PHASE_STARTER = "starter";
+
+    /**
+     * Name of the archive where the updates are downloaded.
+     */
+    private static final String UPDATE_ARCHIVE = "temp";
+
+    /**
+     * Phase listener set back once the update made while starting is done, background updates are not part of the startup.
+     */
+    private static final UpdatePhaseListener NO_PHASE_LISTENER = (phase, start, end) -> {
+    };
+
     /**
      * Name of the application, never null.
      */
     private final String applicationName;
 
     /**
-     * Url to update, null value will prevent to try to update.
+     * Manifest url of each update mirror, null value will prevent to try to update.
      */
-    private String updateUrl;
+    private List<String> updateUrls;
 
     /**
      * Timeout for the update connection, -1 means no timeout.
@@ -94,6 +144,36 @@ public class Application {
 
     private ConditionalUpdate conditionalUpdate = new AlwaysUpdate();
 
+    /**
+     * Helper checking and applying the updates, never null.
+     */
+    private UpdateHelper updateHelper = new UpdateHelper();
+
+    /**
+     * Called when an update was downloaded in background, null if the update is done while starting.
+     */
+    private Runnable backgroundUpdateReady;
+
+    /**
+     * Tasks to run when the application is initialized, contains the built-in tasks and the ones provided by the user.
+     */
+    private final StartupTaskGraph startupTasks = new StartupTaskGraph();
+
+    /**
+     * Maximum number of startup tasks to run at the same time.
+     */
+    private int startupParallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Code run in a class data sharing training run to load the application classes, null to only load the library ones.
+     */
+    private Runnable trainingWorkload;
+
+    /**
+     * Timing of the startup phases, starting when the application is prepared.
+     */
+    private final StartupTimeline timeline = new StartupTimeline();
+
     /**
      * Constructor, private to force using the static function start instead.
      *
@@ -107,6 +187,10 @@ public class Application {
         if (applicationName.isEmpty()) {
             throw new IllegalArgumentException("Application name cannot be empty");
         }
+        this.startupTasks.add(STARTUP_TASK_BANNER, this::displayBanner);
+        this.startupTasks.add(STARTUP_TASK_GIT, this::logGitProperties, STARTUP_TASK_BANNER);
+        this.startupTasks.add(STARTUP_TASK_SPLASH_SCREEN, this::displaySplashScreen);
+        this.startupTasks.add(STARTUP_TASK_UPDATE, () -> Optional.ofNullable(this.updateUrls).ifPresent(this::update), STARTUP_TASK_SPLASH_SCREEN);
     }
 
     /**
@@ -137,10 +221,12 @@ public class Application {
      * @return The application.
      */
     public final Application withConfiguration(String[] args, Properties defaultConfig, ConfigurationNotFoundAdditionalBehavior behavior) {
-        ConfigurationRetriever configurationRetriever = ConfigurationRetrieverFactory
-                .fromFile(ConfigurationNotFoundDefault.fromDefault(Stream.of(new LoggerPropertiesConsoleFile(applicationName), defaultConfig)
-                        .collect(Properties::new, Map::putAll, Map::putAll), behavior));
-        this.properties = configurationRetriever.retrieveFromArgs(ApplicationArgs.of(args));
+        this.timeline.measure(STARTUP_PHASE_CONFIGURATION, () -> {
+            ConfigurationRetriever configurationRetriever = ConfigurationRetrieverFactory
+                    .fromFile(ConfigurationNotFoundDefault.fromDefault(Stream.of(new LoggerPropertiesConsoleFile(applicationName), defaultConfig)
+                            .collect(Properties::new, Map::putAll, Map::putAll), behavior));
+            this.properties = configurationRetriever.retrieveFromArgs(ApplicationArgs.of(args));
+        });
         return this;
     }
 
@@ -196,7 +282,21 @@ public class Application {
      * @return The application.
      */
     public final Application withUpdate(String url) {
-        this.updateUrl = Objects.requireNonNull(url);
+        return this.withUpdate(List.of(url));
+    }
+
+    /**
+     * Provide the update mechanism with several mirrors serving the same update.
+     * The mirrors are ranked by their measured speed, the files are downloaded from the fastest ones.
+     *
+     * @param mirrors Url to call to get the update manifest on each mirror.
+     * @return The application.
+     */
+    public final Application withUpdate(List<String> mirrors) {
+        if (mirrors.isEmpty()) {
+            throw new IllegalArgumentException("At least one update mirror is required.");
+        }
+        this.updateUrls = List.copyOf(mirrors);
         return this;
     }
 
@@ -208,7 +308,18 @@ public class Application {
      * @return The application.
      */
     public final Application withUpdate(String url, int timeout) {
-        this.updateUrl = Objects.requireNonNull(url);
+        return this.withUpdate(List.of(url), timeout);
+    }
+
+    /**
+     * Provide the update mechanism with several mirrors serving the same update.
+     *
+     * @param mirrors Url to call to get the update manifest on each mirror.
+     * @param timeout Timeout for the update connection.
+     * @return The application.
+     */
+    public final Application withUpdate(List<String> mirrors, int timeout) {
+        this.withUpdate(mirrors);
         this.updateTimeOut = timeout;
         return this;
     }
@@ -218,6 +329,89 @@ public class Application {
         return this;
     }
 
+    /**
+     * Set the helper used to check and apply the updates, to customize the download behavior.
+     *
+     * @param updateHelper Helper to use.
+     * @return The application.
+     */
+    public final Application withUpdateHelper(UpdateHelper updateHelper) {
+        this.updateHelper = Objects.requireNonNull(updateHelper);
+        return this;
+    }
+
+    /**
+     * Check and download the update in background instead of waiting for it while starting.
+     * The application starts on the current version, a downloaded update is installed on the next start.
+     * When the update helper uses slots, the update is installed at once in the next slot by a low priority thread.
+     *
+     * @param onUpdateReady Called once an update is downloaded, to restart the application or call installDownloadedUpdate.
+     * @return The application.
+     */
+    public final Application withBackgroundUpdate(Runnable onUpdateReady) {
+        this.backgroundUpdateReady = Objects.requireNonNull(onUpdateReady);
+        return this;
+    }
+
+    /**
+     * Install an update downloaded in background, without waiting for the next start.
+     *
+     * @return true if an update was installed, false if no update was waiting.
+     * @throws IllegalStateException If the update could not be installed.
+     */
+    public final boolean installDownloadedUpdate() {
+        try {
+            return UpdateHelper.installDownloaded(UPDATE_ARCHIVE);
+        } catch (IOException e) {
+            throw new IllegalStateException("The update could not be installed.", e);
+        }
+    }
+
+    /**
+     * Register a task to run when the application is initialized, before the starter is started.
+     * Tasks are run at the same time unless they depend on each other, the logging is always configured before any task is run.
+     * Built-in tasks can be used as dependencies: STARTUP_TASK_BANNER, STARTUP_TASK_GIT, STARTUP_TASK_SPLASH_SCREEN and STARTUP_TASK_UPDATE.
+     *
+     * @param name      Unique name of the task.
+     * @param task      Task to run.
+     * @param dependsOn Names of the tasks to complete before running this one.
+     * @return The application.
+     * @throws IllegalArgumentException If a task with the same name is already registered.
+     */
+    public final Application withStartupTask(String name, Runnable task, String... dependsOn) {
+        this.startupTasks.add(name, task, dependsOn);
+        return this;
+    }
+
+    /**
+     * Set the code to run in a class data sharing training run, started by an ApplicationRestarter with training enabled.
+     * A training run never starts the application: start returns before any startup task, splash screen, update or
+     * starter runs, and the training process exits so the JVM writes the archive.
+     * The workload should load the classes used at startup without side effects, for example without binding ports,
+     * opening windows or connecting to servers. Code run before start must check ClassDataSharing.isTrainingRun itself.
+     *
+     * @param workload Code loading the application classes.
+     * @return The application.
+     */
+    public final Application withClassDataSharingTraining(Runnable workload) {
+        this.trainingWorkload = Objects.requireNonNull(workload);
+        return this;
+    }
+
+    /**
+     * Set the maximum number of startup tasks to run at the same time, default is the number of available processors.
+     *
+     * @param parallelism Maximum number of tasks to run at the same time, 1 to run them sequentially.
+     * @return The application.
+     */
+    public final Application withStartupParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        }
+        this.startupParallelism = parallelism;
+        return this;
+    }
+
     /**
      * Initialize and start the application.
      *
@@ -227,9 +421,12 @@ public class Application {
         if (this.started) {
             return this;
         }
+        this.exitIfTrainingRun();
         try {
             init();
             this.started = true;
+            this.logStartupTimeline();
+            HandoffRestarter.signalReady();
             return this;
         } catch (IOException e) {
             throw new IllegalStateException(e);
@@ -239,6 +436,7 @@ public class Application {
     /**
      * Initialize and start the application by using a starter.
      * Provide support to log all uncaught exceptions.
+     * Once started, the process replaced by a HandoffRestarter is notified that this one is ready.
      *
      * @param starter Starting application.
      * @return The application.
@@ -247,18 +445,42 @@ public class Application {
         if (this.started) {
             return this;
         }
+        this.exitIfTrainingRun();
         try {
             init();
             starter.setApplication(this);
-            starter.startLoggedErrors();
+            this.timeline.measure(STARTUP_PHASE_STARTER, starter::startLoggedErrors);
             this.started = true;
             this.applicationStarted();
+            this.logStartupTimeline();
+            HandoffRestarter.signalReady();
             return this;
         } catch (IOException e) {
             throw new IllegalStateException(e);
         }
     }
 
+    /**
+     * Log the timing of the startup phases.
+     */
+    private void logStartupTimeline() {
+        System.getLogger(Application.class.getName()).log(System.Logger.Level.INFO, this.timeline.report());
+    }
+
+    /**
+     * In a class data sharing training run, run the training workload and exit, the JVM then writes the archive.
+     * This is called before anything is started: no startup task, splash screen, update or starter runs.
+     */
+    private void exitIfTrainingRun() {
+        if (ClassDataSharing.isTrainingRun()) {
+            if (this.trainingWorkload != null) {
+                this.trainingWorkload.run();
+            }
+            System.getLogger(Application.class.getName()).log(System.Logger.Level.INFO, "Class data sharing training run completed.");
+            System.exit(0);
+        }
+    }
+
     /**
      * To call once the application is started, this will close the splashscreen.
      */
@@ -266,6 +488,15 @@ public class Application {
         this.splashScreen.close();
     }
 
+    /**
+     * Get the timing of the startup phases: the configuration, logging, startup tasks, update phases and starter.
+     * The timeline is complete once the application is started.
+     * @return The startup timeline.
+     */
+    public final StartupTimeline getStartupTimeline() {
+        return this.timeline;
+    }
+
     /**
      * Get the application configuration.
      * @return The configuration properties.
@@ -276,30 +507,92 @@ public class Application {
 
     /**
      * Initialize the application before starting.
+     * The logging is configured first, then all the startup tasks are run and awaited.
      * @throws IOException If something wrong occurs.
      */
     private void init() throws IOException {
+        this.timeline.begin(STARTUP_PHASE_LOGGING);
+        var logStart = System.nanoTime();
         var logEngine = LogEngineProvider.getLoggerProvider().getLogEngine();
         logEngine.configureFromProperties(LoggerPropertiesConfiguration.fromProperties(this.properties));
-        System.Logger logger = System.getLogger(Application.class.getName());
+        this.timeline.record(STARTUP_PHASE_LOGGING, logStart, System.nanoTime());
+        this.startupTasks.run(this.startupParallelism, this.timeline);
+    }
+
+    /**
+     * Display the banner and the process information.
+     */
+    private void displayBanner() {
         this.banner.display();
-        logger.log(System.Logger.Level.INFO, "Starting {0} (PID:{1}).", this.applicationName, ProcessHandle.current().pid());
+        System.getLogger(Application.class.getName()).log(System.Logger.Level.INFO, "Starting {0} (PID:{1}).", this.applicationName, ProcessHandle.current().pid());
+    }
+
+    /**
+     * Log the git information of the build.
+     */
+    private void logGitProperties() {
+        System.Logger logger = System.getLogger(Application.class.getName());
         GitProperties git = GitPropertiesProvider.getGitProperties();
         logger.log(System.Logger.Level.INFO, "Commit: {0}", git.getCommitId());
         logger.log(System.Logger.Level.INFO, "Built at {0}", git.getBuildTime());
+    }
+
+    /**
+     * Build and display the splash screen.
+     */
+    private void displaySplashScreen() {
         this.splashScreen = this.splashScreenProvider.buildSplashScreen(this.properties);
         this.splashScreen.setName(this.applicationName);
         this.splashScreen.display();
-        Optional.ofNullable(this.updateUrl).ifPresent(this::update);
+    }
+
+    /**
+     * Provide a listener recording the update phases in the startup timeline.
+     * @return The listener.
+     */
+    private UpdatePhaseListener timelinePhaseListener() {
+        return new UpdatePhaseListener() {
+            @Override
+            public void phaseStarted(String phase) {
+                Application.this.timeline.begin(phase);
+            }
+
+            @Override
+            public void phaseCompleted(String phase, long start, long end) {
+                Application.this.timeline.record(phase, start, end);
+            }
+        };
     }
 
     /**
      * Update the application.
-     * @param url Url to call to get the update manifest.
+     * In background mode, an update downloaded previously is installed, and a new one is checked in a virtual thread.
+     * @param mirrors Url to call to get the update manifest on each mirror.
      */
-    private void update(String url) {
-        if(this.conditionalUpdate.needUpdate()) {
-            new UpdateHelper().update(url, "temp", Duration.ofMinutes(5), this.updateTimeOut, List.of(this.splashScreen));
+    private void update(List<String> mirrors) {
+        this.updateHelper.withProperties(this.properties);
+        if (this.backgroundUpdateReady == null) {
+            if(this.conditionalUpdate.needUpdate()) {
+                try (var listener = new AsyncUpdateDownloadListener(this.splashScreen)) {
+                    this.updateHelper.withPhaseListener(this.timelinePhaseListener());
+                    this.updateHelper.update(mirrors, UPDATE_ARCHIVE, Duration.ofMinutes(5), this.updateTimeOut, List.of(listener));
+                } finally {
+                    this.updateHelper.withPhaseListener(NO_PHASE_LISTENER);
+                }
+            }
+            return;
         }
+        if (this.installDownloadedUpdate()) {
+            System.getLogger(Application.class.getName()).log(System.Logger.Level.INFO, "Update downloaded in background installed.");
+        }
+        Thread.Builder thread = this.updateHelper.usesSlots()
+                ? Thread.ofPlatform().daemon().priority(Thread.MIN_PRIORITY)
+                : Thread.ofVirtual();
+        thread.name("background-update").start(() -> {
+            if (this.conditionalUpdate.needUpdate()
+                    && this.updateHelper.download(mirrors, UPDATE_ARCHIVE, Duration.ofMinutes(5), this.updateTimeOut, List.of())) {
+                this.backgroundUpdateReady.run();
+            }
+        });
     }
 }
@@ -0,0 +1,76 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2021-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event emitted for each application startup phase.
+ * The event begins when the phase starts and ends when it is completed, so the phase lines up with the rest of the recording.
+ *
+ * @author Grégory Van den Borre
+ */
+@Name("be.yildizgames.application.StartupPhase")
+@Label("Startup Phase")
+@Category({"Yildiz", "Application"})
+@Description("Phase of the application startup, with its offset from the beginning of the startup.")
+@StackTrace(false)
+final class StartupPhaseEvent extends Event {
+
+    /**
+     * Phase name.
+     */
+    @Label("Phase")
+    String phase;
+
+    /**
+     * Time from the beginning of the startup to the beginning of the phase.
+     */
+    @Label("Offset")
+    @Timespan(Timespan.NANOSECONDS)
+    long offset;
+
+    /**
+     * Create an event for a phase starting now.
+     *
+     * @return The begun event.
+     */
+    static StartupPhaseEvent started() {
+        var event = new StartupPhaseEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End the event and commit it for a completed phase, if the event is enabled in a running recording.
+     *
+     * @param completed Recorded phase.
+     */
+    void publish(StartupTimeline.Phase completed) {
+        this.end();
+        if (this.shouldCommit()) {
+            this.phase = completed.name();
+            this.offset = completed.start().toNanos();
+            this.commit();
+        }
+    }
+}
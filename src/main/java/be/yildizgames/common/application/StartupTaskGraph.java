@@ -0,0 +1,218 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Graph of tasks to run when the application starts.
+ * Tasks without dependencies between them are run at the same time on a bounded pool of threads,
+ * a task is only run once all the tasks it depends on are successfully completed.
+ *
+ * @author Grégory Van den Borre
+ */
+final class StartupTaskGraph {
+
+    /**
+     * Registered tasks, by name, in registration order.
+     */
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+
+    /**
+     * Create an empty graph.
+     */
+    StartupTaskGraph() {
+        super();
+    }
+
+    /**
+     * Register a task in the graph.
+     *
+     * @param name      Unique name of the task.
+     * @param task      Task to run.
+     * @param dependsOn Names of the tasks that must be completed before this one is run.
+     * @throws IllegalArgumentException If a task with the same name is already registered, or if the task depends on itself.
+     */
+    void add(String name, Runnable task, String... dependsOn) {
+        Objects.requireNonNull(name);
+        Objects.requireNonNull(task);
+        if (this.nodes.containsKey(name)) {
+            throw new IllegalArgumentException("Startup task already registered: " + name);
+        }
+        var dependencies = List.of(dependsOn);
+        if (dependencies.contains(name)) {
+            throw new IllegalArgumentException("Startup task cannot depend on itself: " + name);
+        }
+        this.nodes.put(name, new Node(name, task, dependencies));
+    }
+
+    /**
+     * Run all the tasks and wait for all of them to be completed.
+     *
+     * @param parallelism Maximum number of tasks to run at the same time.
+     * @throws IllegalArgumentException If a dependency is unknown or if the graph contains a cycle.
+     * @throws IllegalStateException    If a task failed, the failing task exception is the cause.
+     */
+    void run(int parallelism) {
+        this.run(parallelism, new StartupTimeline());
+    }
+
+    /**
+     * Run all the tasks and wait for all of them to be completed, the timing of each task is recorded in a timeline.
+     *
+     * @param parallelism Maximum number of tasks to run at the same time.
+     * @param timeline    Timeline recording the tasks, under their name.
+     * @throws IllegalArgumentException If a dependency is unknown or if the graph contains a cycle.
+     * @throws IllegalStateException    If a task failed, the failing task exception is the cause.
+     */
+    void run(int parallelism, StartupTimeline timeline) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        }
+        var ordered = this.sort();
+        if (ordered.isEmpty()) {
+            return;
+        }
+        var executor = buildExecutor(Math.min(parallelism, ordered.size()));
+        try {
+            Map<String, CompletableFuture<Void>> futures = new HashMap<>();
+            for (var node : ordered) {
+                var dependencies = node.dependsOn.stream()
+                        .map(futures::get)
+                        .toArray(CompletableFuture[]::new);
+                futures.put(node.name, CompletableFuture.allOf(dependencies).thenRunAsync(() -> node.execute(timeline), executor));
+            }
+            try {
+                CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new)).join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof StartupTaskException s
+                        ? new IllegalStateException("Startup task '" + s.task + "' failed.", s.getCause())
+                        : new IllegalStateException(e.getCause());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Order the tasks so that every task comes after all its dependencies.
+     *
+     * @return The ordered tasks.
+     * @throws IllegalArgumentException If a dependency is unknown or if the graph contains a cycle.
+     */
+    private List<Node> sort() {
+        Map<String, Integer> remaining = new HashMap<>();
+        Map<String, List<Node>> dependents = new HashMap<>();
+        Deque<Node> ready = new ArrayDeque<>();
+        for (var node : this.nodes.values()) {
+            for (var dependency : node.dependsOn) {
+                if (!this.nodes.containsKey(dependency)) {
+                    throw new IllegalArgumentException("Startup task '" + node.name + "' depends on unknown task '" + dependency + "'.");
+                }
+                dependents.computeIfAbsent(dependency, d -> new ArrayList<>()).add(node);
+            }
+            remaining.put(node.name, node.dependsOn.size());
+            if (node.dependsOn.isEmpty()) {
+                ready.add(node);
+            }
+        }
+        List<Node> result = new ArrayList<>(this.nodes.size());
+        while (!ready.isEmpty()) {
+            var node = ready.poll();
+            result.add(node);
+            for (var dependent : dependents.getOrDefault(node.name, List.of())) {
+                if (remaining.merge(dependent.name, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        if (result.size() != this.nodes.size()) {
+            throw new IllegalArgumentException("Startup tasks contain a dependency cycle.");
+        }
+        return result;
+    }
+
+    /**
+     * Build the executor running the tasks, threads are daemon to never prevent the JVM to stop.
+     *
+     * @param threads Number of threads.
+     * @return The executor.
+     */
+    private static ExecutorService buildExecutor(int threads) {
+        var counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            var thread = new Thread(r, "startup-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * A task in the graph.
+     *
+     * @param name      Unique task name.
+     * @param task      Task to run.
+     * @param dependsOn Name of the tasks to complete before this one.
+     */
+    private record Node(String name, Runnable task, List<String> dependsOn) {
+
+        /**
+         * Run the task, wrapping any failure to keep track of the failing task name.
+         *
+         * @param timeline Timeline recording the task.
+         */
+        private void execute(StartupTimeline timeline) {
+            try {
+                timeline.measure(this.name, this.task);
+            } catch (RuntimeException e) {
+                throw new StartupTaskException(this.name, e);
+            }
+        }
+    }
+
+    /**
+     * Exception thrown when a startup task failed.
+     */
+    private static final class StartupTaskException extends RuntimeException {
+
+        /**
+         * Serialization version.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Name of the failing task.
+         */
+        private final String task;
+
+        private StartupTaskException(String task, Throwable cause) {
+            super(cause);
+            this.task = task;
+        }
+    }
+}
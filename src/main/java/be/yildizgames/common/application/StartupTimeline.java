@@ -0,0 +1,174 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2021-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Timing of the application startup phases, measured with the monotonic clock.
+ * Phases can be recorded from several threads, as the startup tasks run at the same time.
+ * Each phase is also published as a JFR event, begun when the phase starts, to be correlated with the rest of a flight recording.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class StartupTimeline {
+
+    /**
+     * Time the startup began, in nanoseconds, all the phases are relative to it.
+     */
+    private final long origin;
+
+    /**
+     * Recorded phases, in completion order.
+     */
+    private final Queue<Phase> phases = new ConcurrentLinkedQueue<>();
+
+    /**
+     * JFR events of the phases started and not yet recorded, by phase name.
+     */
+    private final Map<String, StartupPhaseEvent> events = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new timeline starting now.
+     */
+    StartupTimeline() {
+        this(System.nanoTime());
+    }
+
+    /**
+     * Create a new timeline.
+     *
+     * @param origin Time the startup began, in nanoseconds.
+     */
+    StartupTimeline(long origin) {
+        super();
+        this.origin = origin;
+    }
+
+    /**
+     * Run a phase and record its timing, the phase is recorded even if it fails.
+     *
+     * @param name Phase name.
+     * @param task Phase to run.
+     */
+    void measure(String name, Runnable task) {
+        this.begin(name);
+        var start = System.nanoTime();
+        try {
+            task.run();
+        } finally {
+            this.record(name, start, System.nanoTime());
+        }
+    }
+
+    /**
+     * Notify that a phase measured elsewhere starts, so its JFR event covers the phase.
+     *
+     * @param name Phase name.
+     */
+    void begin(String name) {
+        this.events.put(name, StartupPhaseEvent.started());
+    }
+
+    /**
+     * Record a phase measured elsewhere.
+     * If the phase start was not notified with begin, its JFR event is recorded at the end of the phase.
+     *
+     * @param name  Phase name.
+     * @param start Time the phase started, from System.nanoTime.
+     * @param end   Time the phase ended, from System.nanoTime.
+     */
+    void record(String name, long start, long end) {
+        var phase = new Phase(name, Duration.ofNanos(start - this.origin), Duration.ofNanos(end - start), Thread.currentThread().getName());
+        this.phases.add(phase);
+        var event = this.events.remove(name);
+        (event == null ? StartupPhaseEvent.started() : event).publish(phase);
+    }
+
+    /**
+     * Provide the recorded phases.
+     *
+     * @return The phases, by start time.
+     */
+    public List<Phase> phases() {
+        return this.phases.stream()
+                .sorted(Comparator.comparing(Phase::start))
+                .toList();
+    }
+
+    /**
+     * Provide a recorded phase.
+     *
+     * @param name Phase name.
+     * @return The phase, empty if not recorded.
+     */
+    public Optional<Phase> phase(String name) {
+        return this.phases.stream().filter(p -> p.name().equals(name)).findFirst();
+    }
+
+    /**
+     * Provide the time from the beginning of the startup to the end of the last phase.
+     *
+     * @return The total startup time, zero if no phase was recorded.
+     */
+    public Duration total() {
+        return this.phases.stream()
+                .map(Phase::end)
+                .max(Comparator.naturalOrder())
+                .orElse(Duration.ZERO);
+    }
+
+    /**
+     * Build a human readable report, one line per phase with its start offset, duration and thread.
+     *
+     * @return The report.
+     */
+    public String report() {
+        var builder = new StringBuilder("Startup completed in ").append(this.total().toMillis()).append(" ms");
+        for (var phase : this.phases()) {
+            builder.append(System.lineSeparator())
+                    .append(String.format("  +%6d ms %6d ms  %-20s %s", phase.start().toMillis(), phase.duration().toMillis(), phase.name(), phase.thread()));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * A timed startup phase.
+     *
+     * @param name     Phase name.
+     * @param start    Time from the beginning of the startup to the beginning of the phase.
+     * @param duration Phase duration.
+     * @param thread   Name of the thread that ran the phase.
+     */
+    public record Phase(String name, Duration start, Duration duration, String thread) {
+
+        /**
+         * Provide the time from the beginning of the startup to the end of the phase.
+         *
+         * @return The phase end offset.
+         */
+        public Duration end() {
+            return this.start.plus(this.duration);
+        }
+    }
+}
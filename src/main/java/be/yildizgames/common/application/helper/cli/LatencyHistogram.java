@@ -0,0 +1,105 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2021-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.cli;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latencies in nanoseconds, with log-linear buckets: values below 64 are exact,
+ * above that each power of two is split in 32 buckets, so a value is known within 3%.
+ * Recording a value only increments a counter, it never allocates nor locks.
+ *
+ * @author Grégory Van den Borre
+ */
+final class LatencyHistogram {
+
+    /**
+     * Number of bits of the sub bucket index.
+     */
+    private static final int SUB_BUCKET_BITS = 5;
+
+    /**
+     * Number of buckets per power of two.
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Number of buckets, enough for any positive long.
+     */
+    static final int BUCKETS = index(Long.MAX_VALUE) + 1;
+
+    /**
+     * Count of values by bucket.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Create an empty histogram.
+     */
+    LatencyHistogram() {
+        super();
+    }
+
+    /**
+     * Record a value.
+     *
+     * @param nanos Value to record, negative values are recorded as 0.
+     */
+    void record(long nanos) {
+        this.counts.getAndIncrement(index(Math.max(0, nanos)));
+    }
+
+    /**
+     * Add the counts of this histogram to an array, and reset them if requested.
+     *
+     * @param target Array of BUCKETS counts.
+     * @param reset  true to reset the counts of this histogram.
+     */
+    void addTo(long[] target, boolean reset) {
+        for (var i = 0; i < BUCKETS; i++) {
+            target[i] += reset ? this.counts.getAndSet(i, 0) : this.counts.get(i);
+        }
+    }
+
+    /**
+     * Compute the bucket of a value.
+     *
+     * @param value Positive value.
+     * @return The bucket index.
+     */
+    static int index(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        var shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    /**
+     * Compute the highest value of a bucket.
+     *
+     * @param index Bucket index.
+     * @return The highest value counted in the bucket.
+     */
+    static long highestValue(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        var shift = index / SUB_BUCKETS - 1;
+        long top = index % SUB_BUCKETS + SUB_BUCKETS;
+        return top == 2 * SUB_BUCKETS - 1 && shift == 63 - SUB_BUCKET_BITS - 1 ? Long.MAX_VALUE : ((top + 1) << shift) - 1;
+    }
+}
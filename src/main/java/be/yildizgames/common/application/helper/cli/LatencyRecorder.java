@@ -0,0 +1,227 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2021-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.cli;
+
+import be.yildizgames.common.logging.Logger;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Record latencies in named sections, with nanosecond timing and low enough overhead to stay enabled in production.
+ * Each section spreads the recording threads over several histograms, so recording never allocates nor locks,
+ * and threads rarely share a counter. The percentiles are computed only when a summary is requested.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class LatencyRecorder implements AutoCloseable {
+
+    /**
+     * Sections by name.
+     */
+    private final Map<String, Section> sections = new ConcurrentHashMap<>();
+
+    /**
+     * Maximum number of histograms per section, each one uses 15KB.
+     */
+    private static final int MAX_STRIPES = 16;
+
+    /**
+     * Number of histograms per section, a power of two up to twice the number of processors.
+     */
+    private final int stripes = Integer.highestOneBit(Math.clamp(Runtime.getRuntime().availableProcessors() * 2L, 1, MAX_STRIPES));
+
+    /**
+     * Executor of the periodic dump, null if none.
+     */
+    private ScheduledExecutorService dumper;
+
+    /**
+     * Create a new recorder without any section.
+     */
+    public LatencyRecorder() {
+        super();
+    }
+
+    /**
+     * Provide a section, created on first use. The section should be kept by the caller to avoid the lookup.
+     *
+     * @param name Section name.
+     * @return The section.
+     */
+    public Section section(String name) {
+        var section = this.sections.get(Objects.requireNonNull(name));
+        return section != null ? section : this.sections.computeIfAbsent(name, n -> new Section(n, this.stripes));
+    }
+
+    /**
+     * Compute the summary of each section, since the creation or the last reset.
+     *
+     * @return The summaries, by section name.
+     */
+    public List<LatencySummary> summaries() {
+        return this.summaries(false);
+    }
+
+    /**
+     * Compute the summary of each section, and reset the recorded latencies so the next summaries cover a new interval.
+     *
+     * @return The summaries, by section name.
+     */
+    public List<LatencySummary> summariesAndReset() {
+        return this.summaries(true);
+    }
+
+    /**
+     * Log the summary of each section.
+     */
+    public void dump() {
+        this.summaries().forEach(s -> Logger.getLogger(this).info("Latency {0}", s));
+    }
+
+    /**
+     * Log the summary of each section periodically, each dump covers the latencies recorded since the previous one.
+     *
+     * @param interval Time between two dumps.
+     * @return This recorder.
+     * @throws IllegalArgumentException If the interval is not positive.
+     */
+    public synchronized LatencyRecorder withPeriodicDump(Duration interval) {
+        if (interval.isZero() || interval.isNegative()) {
+            throw new IllegalArgumentException("Interval must be positive.");
+        }
+        this.close();
+        this.dumper = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("latency-dump").factory());
+        this.dumper.scheduleAtFixedRate(
+                () -> this.summariesAndReset().forEach(s -> Logger.getLogger(this).info("Latency {0}", s)),
+                interval.toNanos(), interval.toNanos(), TimeUnit.NANOSECONDS);
+        return this;
+    }
+
+    /**
+     * Stop the periodic dump.
+     */
+    @Override
+    public synchronized void close() {
+        if (this.dumper != null) {
+            this.dumper.shutdownNow();
+            this.dumper = null;
+        }
+    }
+
+    /**
+     * Compute the summary of each section.
+     *
+     * @param reset true to reset the recorded latencies.
+     * @return The summaries, by section name.
+     */
+    private List<LatencySummary> summaries(boolean reset) {
+        return this.sections.values().stream()
+                .map(s -> s.summary(reset))
+                .sorted((a, b) -> a.section().compareTo(b.section()))
+                .toList();
+    }
+
+    /**
+     * A named section where latencies are recorded.
+     */
+    public static final class Section {
+
+        /**
+         * Section name.
+         */
+        private final String name;
+
+        /**
+         * Histograms, a thread always records in the same one.
+         */
+        private final LatencyHistogram[] histograms;
+
+        /**
+         * Create a new section.
+         *
+         * @param name    Section name.
+         * @param stripes Number of histograms, a power of two.
+         */
+        private Section(String name, int stripes) {
+            super();
+            this.name = name;
+            this.histograms = new LatencyHistogram[stripes];
+            for (var i = 0; i < stripes; i++) {
+                this.histograms[i] = new LatencyHistogram();
+            }
+        }
+
+        /**
+         * Start timing, to use with stop.
+         *
+         * @return The current time, in nanoseconds.
+         */
+        public long start() {
+            return System.nanoTime();
+        }
+
+        /**
+         * Record the time elapsed since start.
+         *
+         * @param start Value returned by start.
+         * @return The current time, to chain timings.
+         */
+        public long stop(long start) {
+            var now = System.nanoTime();
+            this.record(now - start);
+            return now;
+        }
+
+        /**
+         * Record a latency.
+         *
+         * @param nanos Latency in nanoseconds.
+         */
+        public void record(long nanos) {
+            this.histograms[(int) Thread.currentThread().threadId() & (this.histograms.length - 1)].record(nanos);
+        }
+
+        /**
+         * Provide the section name.
+         *
+         * @return The name.
+         */
+        public String name() {
+            return this.name;
+        }
+
+        /**
+         * Merge the histograms into a summary.
+         *
+         * @param reset true to reset the histograms.
+         * @return The summary.
+         */
+        private LatencySummary summary(boolean reset) {
+            var counts = new long[LatencyHistogram.BUCKETS];
+            for (var histogram : this.histograms) {
+                histogram.addTo(counts, reset);
+            }
+            return LatencySummary.of(this.name, counts);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2021-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.cli;
+
+import java.time.Duration;
+
+/**
+ * Percentiles of the latencies recorded in a section, each value is accurate within 3%.
+ *
+ * @param section Section name.
+ * @param count   Number of recorded latencies.
+ * @param p50     Median latency.
+ * @param p99     99th percentile latency.
+ * @param p999    99.9th percentile latency.
+ * @param max     Highest latency.
+ * @author Grégory Van den Borre
+ */
+public record LatencySummary(String section, long count, Duration p50, Duration p99, Duration p999, Duration max) {
+
+    /**
+     * Compute the summary of merged histogram counts.
+     *
+     * @param section Section name.
+     * @param counts  Counts by bucket.
+     * @return The summary.
+     */
+    static LatencySummary of(String section, long[] counts) {
+        var total = 0L;
+        var highest = -1;
+        for (var i = 0; i < counts.length; i++) {
+            total += counts[i];
+            if (counts[i] > 0) {
+                highest = i;
+            }
+        }
+        return new LatencySummary(section, total,
+                percentile(counts, total, 0.5),
+                percentile(counts, total, 0.99),
+                percentile(counts, total, 0.999),
+                highest < 0 ? Duration.ZERO : Duration.ofNanos(LatencyHistogram.highestValue(highest)));
+    }
+
+    /**
+     * Compute a percentile of histogram counts.
+     *
+     * @param counts     Counts by bucket.
+     * @param total      Sum of the counts.
+     * @param percentile Percentile, between 0 and 1.
+     * @return The highest value of the bucket reaching the percentile, zero if there is no value.
+     */
+    private static Duration percentile(long[] counts, long total, double percentile) {
+        var rank = Math.max(1, (long) Math.ceil(total * percentile));
+        var cumulated = 0L;
+        for (var i = 0; i < counts.length; i++) {
+            cumulated += counts[i];
+            if (cumulated >= rank) {
+                return Duration.ofNanos(LatencyHistogram.highestValue(i));
+            }
+        }
+        return Duration.ZERO;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: count=%d p50=%.3fms p99=%.3fms p999=%.3fms max=%.3fms", this.section, this.count,
+                millis(this.p50), millis(this.p99), millis(this.p999), millis(this.max));
+    }
+
+    /**
+     * Convert a duration in fractional milliseconds.
+     *
+     * @param duration Duration to convert.
+     * @return The duration in milliseconds.
+     */
+    private static double millis(Duration duration) {
+        return duration.toNanos() / 1_000_000.0;
+    }
+}
@@ -16,37 +16,60 @@
 
 package be.yildizgames.common.application.helper.cli;
 
+import java.util.Objects;
+
 /**
  * Utility class for measuring and displaying elapsed time between operations.
+ * In recording mode, the elapsed times are recorded in a latency recorder, in a section by label, instead of being displayed.
  *
  * @author Grégory Van den Borre
  */
 public class PerformanceChecker {
 
     /**
-     * The timestamp of when this instance was created or the last measurement was taken.
+     * Recorder of the elapsed times, null to display them.
+     */
+    private final LatencyRecorder recorder;
+
+    /**
+     * The timestamp of when this instance was created or the last measurement was taken, in nanoseconds.
      */
-    private long now = System.currentTimeMillis();
+    private long now = System.nanoTime();
 
     /**
      * Creates a new PerformanceChecker instance.
      */
     public PerformanceChecker() {
         super();
+        this.recorder = null;
+    }
+
+    /**
+     * Creates a new PerformanceChecker instance in recording mode.
+     *
+     * @param recorder Recorder of the elapsed times.
+     */
+    public PerformanceChecker(LatencyRecorder recorder) {
+        super();
+        this.recorder = Objects.requireNonNull(recorder);
     }
 
     /**
      * Displays the elapsed time since construction or the last call in milliseconds.
+     * In recording mode, the elapsed time is recorded in the section named after the label instead, without allocating.
      *
      * @param label label to display along with the elapsed time.
      */
     public final void displayTimeElapsed(final String label) {
-        var l = System.currentTimeMillis();
-        if (label == null || label.isEmpty()) {
-            Terminal.println("Time elapsed " + (l - this.now) + "ms.");
+        var l = System.nanoTime();
+        var elapsed = l - this.now;
+        this.now = l;
+        if (this.recorder != null) {
+            this.recorder.section(label == null ? "" : label).record(elapsed);
+        } else if (label == null || label.isEmpty()) {
+            Terminal.println("Time elapsed " + elapsed / 1_000_000 + "ms.");
         } else {
-            Terminal.println("Time elapsed for " + label + " " + (l - this.now) + "ms.");
+            Terminal.println("Time elapsed for " + label + " " + elapsed / 1_000_000 + "ms.");
         }
-        this.now = l;
     }
 }
@@ -0,0 +1,193 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2021-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.network;
+
+import be.yildizgames.common.logging.Logger;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.SocketException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Discover the addresses of the machine from its network interfaces, without any network access.
+ * The addresses are ranked and kept in an immutable snapshot, read without locking.
+ * When the snapshot is older than the refresh delay, it is still returned, and the interfaces are enumerated again in a virtual thread.
+ *
+ * @author Grégory Van den Borre
+ */
+final class AddressDiscovery {
+
+    /**
+     * Name prefixes of the virtual interfaces created by containers, hypervisors and bridges.
+     */
+    private static final List<String> VIRTUAL_PREFIXES = List.of("docker", "veth", "br-", "virbr", "vmnet", "vboxnet", "lxc", "cni", "flannel");
+
+    /**
+     * Ranking of the addresses, the best first.
+     */
+    private static final Comparator<InetAddress> RANKING = Comparator.comparingInt(AddressDiscovery::rank);
+
+    /**
+     * Delay after which the addresses are enumerated again, in nanoseconds.
+     */
+    private final long refreshDelay;
+
+    /**
+     * Source of the addresses.
+     */
+    private final Supplier<List<InetAddress>> source;
+
+    /**
+     * Last discovered addresses, null before the first discovery.
+     */
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    /**
+     * Flag set while a refresh runs, only one runs at a time.
+     */
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    /**
+     * Create a discovery of the machine network interfaces.
+     *
+     * @param refreshDelay Delay after which the addresses are enumerated again.
+     */
+    AddressDiscovery(Duration refreshDelay) {
+        this(refreshDelay, AddressDiscovery::enumerate);
+    }
+
+    /**
+     * Create a discovery from an address source.
+     *
+     * @param refreshDelay Delay after which the addresses are enumerated again.
+     * @param source       Source of the addresses, called again at each refresh.
+     */
+    AddressDiscovery(Duration refreshDelay, Supplier<List<InetAddress>> source) {
+        super();
+        this.refreshDelay = refreshDelay.toNanos();
+        this.source = Objects.requireNonNull(source);
+    }
+
+    /**
+     * Provide the ranked addresses.
+     * Only the first call enumerates the interfaces in the calling thread, the next ones never block.
+     *
+     * @return The addresses, the best first, empty if the machine has no usable interface.
+     */
+    List<InetAddress> addresses() {
+        var current = this.snapshot.get();
+        if (current == null) {
+            return this.refresh();
+        }
+        if (System.nanoTime() - current.time() > this.refreshDelay && this.refreshing.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("address-discovery").start(() -> {
+                try {
+                    this.refresh();
+                } catch (RuntimeException e) {
+                    Logger.getLogger(this).warning("Address discovery failed: {0}", e.getMessage());
+                } finally {
+                    this.refreshing.set(false);
+                }
+            });
+        }
+        return current.addresses();
+    }
+
+    /**
+     * Enumerate the addresses again, in the calling thread.
+     *
+     * @return The new ranked addresses.
+     */
+    List<InetAddress> refresh() {
+        var addresses = new ArrayList<>(this.source.get());
+        addresses.sort(RANKING);
+        var result = List.copyOf(addresses);
+        var previous = this.snapshot.getAndSet(new Snapshot(result, System.nanoTime()));
+        if (previous != null && !previous.addresses().equals(result)) {
+            Logger.getLogger(this).info("Network addresses changed: {0}", result);
+        }
+        return result;
+    }
+
+    /**
+     * Rank an address, lower is better.
+     * Private IPv4 addresses come first, as they are the ones reachable on the local network,
+     * then public IPv4, global IPv6, unique local IPv6, and finally link local addresses.
+     *
+     * @param address Address to rank.
+     * @return The address rank.
+     */
+    static int rank(InetAddress address) {
+        var ipv4 = address instanceof Inet4Address;
+        if (address.isLinkLocalAddress()) {
+            return ipv4 ? 5 : 6;
+        }
+        if (ipv4) {
+            return address.isSiteLocalAddress() ? 0 : 1;
+        }
+        return (address.getAddress()[0] & 0xFE) == 0xFC || address.isSiteLocalAddress() ? 3 : 2;
+    }
+
+    /**
+     * Check if an interface must be ignored.
+     *
+     * @param name Interface name.
+     * @param virtual true if the interface is a sub interface.
+     * @return true for virtual interfaces.
+     */
+    static boolean isVirtual(String name, boolean virtual) {
+        return virtual || VIRTUAL_PREFIXES.stream().anyMatch(name::startsWith);
+    }
+
+    /**
+     * Enumerate the addresses of the up, non loopback, non virtual interfaces.
+     *
+     * @return The addresses, in no particular order.
+     */
+    private static List<InetAddress> enumerate() {
+        try {
+            var interfaces = java.net.NetworkInterface.networkInterfaces().toList();
+            var result = new ArrayList<InetAddress>();
+            for (var networkInterface : interfaces) {
+                if (networkInterface.isUp() && !networkInterface.isLoopback() && !isVirtual(networkInterface.getName(), networkInterface.isVirtual())) {
+                    networkInterface.inetAddresses()
+                            .filter(a -> !a.isLoopbackAddress() && !a.isAnyLocalAddress() && !a.isMulticastAddress())
+                            .forEach(result::add);
+                }
+            }
+            return result;
+        } catch (SocketException e) {
+            throw new IllegalStateException("Network interfaces cannot be listed", e);
+        }
+    }
+
+    /**
+     * Immutable result of a discovery.
+     *
+     * @param addresses Ranked addresses.
+     * @param time      Time of the discovery, in nanoseconds.
+     */
+    private record Snapshot(List<InetAddress> addresses, long time) {
+    }
+}
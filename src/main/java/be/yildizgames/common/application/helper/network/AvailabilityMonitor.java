@@ -0,0 +1,420 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2021-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.network;
+
+import be.yildizgames.common.logging.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Check the availability of many servers from a single thread.
+ * At each interval, the watched servers are resolved in parallel, then a non-blocking connection is started to every
+ * one of them at once, and a selector waits for all of them, a server not connected before its timeout is offline.
+ * A failed round is logged and marks every server offline, the monitor keeps checking at the next interval.
+ * The statuses are read without lock, listeners are notified from the monitor thread when a server becomes
+ * available or unavailable.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class AvailabilityMonitor implements AutoCloseable {
+
+    /**
+     * Watched servers, with their parsed endpoint.
+     */
+    private final Map<ServerAccessConfiguration, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * Last status of each server.
+     */
+    private final Map<ServerAccessConfiguration, EndpointStatus> statuses = new ConcurrentHashMap<>();
+
+    /**
+     * Listeners notified when a server becomes available or unavailable.
+     */
+    private final List<Consumer<EndpointStatus>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Delay between two checks of a server, in nanoseconds.
+     */
+    private final long interval;
+
+    /**
+     * Maximum time to connect, in nanoseconds.
+     */
+    private final long timeout;
+
+    /**
+     * Selector waiting for the connections.
+     */
+    private final Selector selector;
+
+    /**
+     * Thread running the checks.
+     */
+    private final Thread thread;
+
+    /**
+     * Flag set to stop the monitor.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Flag set when a server is watched, so a server added during a round is checked without waiting for the next one.
+     */
+    private volatile boolean added;
+
+    /**
+     * Creates and starts a new monitor.
+     *
+     * @param interval Delay between two checks of a server.
+     * @param timeout  Maximum time to connect to a server.
+     * @throws IllegalArgumentException If the interval or the timeout is not positive.
+     * @throws UncheckedIOException     If the selector could not be opened.
+     */
+    public AvailabilityMonitor(Duration interval, Duration timeout) {
+        super();
+        if (interval.isNegative() || interval.isZero() || timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Interval and timeout must be positive.");
+        }
+        this.interval = interval.toNanos();
+        this.timeout = timeout.toNanos();
+        try {
+            this.selector = Selector.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.thread = Thread.ofPlatform().daemon().name("availability-monitor").start(this::run);
+    }
+
+    /**
+     * Start watching a server, it is checked in the next round.
+     *
+     * @param configuration Server to watch.
+     * @return An availability checker reading the status of the server, offline until it is checked.
+     * @throws IllegalArgumentException If the server url is not valid.
+     */
+    public AvailabilityChecker watch(ServerAccessConfiguration configuration) {
+        this.endpoints.put(Objects.requireNonNull(configuration), Endpoint.of(configuration));
+        this.added = true;
+        this.selector.wakeup();
+        return () -> this.status(configuration).map(EndpointStatus::online).orElse(false);
+    }
+
+    /**
+     * Stop watching a server.
+     *
+     * @param configuration Server to stop watching.
+     */
+    public void unwatch(ServerAccessConfiguration configuration) {
+        this.endpoints.remove(configuration);
+        this.statuses.remove(configuration);
+    }
+
+    /**
+     * Provide the last status of a server.
+     *
+     * @param configuration Watched server.
+     * @return The last status, empty if the server was not checked yet.
+     */
+    public Optional<EndpointStatus> status(ServerAccessConfiguration configuration) {
+        return Optional.ofNullable(this.statuses.get(configuration));
+    }
+
+    /**
+     * Provide the last status of all the checked servers.
+     *
+     * @return A snapshot of the statuses.
+     */
+    public List<EndpointStatus> statuses() {
+        return List.copyOf(this.statuses.values());
+    }
+
+    /**
+     * Register a listener notified when a server becomes available or unavailable, and after its first check.
+     * Listeners are called from the monitor thread.
+     *
+     * @param listener Listener to notify.
+     * @return This monitor.
+     */
+    public AvailabilityMonitor subscribe(Consumer<EndpointStatus> listener) {
+        this.listeners.add(Objects.requireNonNull(listener));
+        return this;
+    }
+
+    /**
+     * Stop the monitor thread.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        this.selector.wakeup();
+        LockSupport.unpark(this.thread);
+        try {
+            this.thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Run the check rounds until closed.
+     */
+    private void run() {
+        try (this.selector) {
+            while (!this.closed) {
+                var start = System.nanoTime();
+                this.added = false;
+                try {
+                    this.round();
+                } catch (IOException | RuntimeException e) {
+                    Logger.getLogger(this).error(e);
+                    this.abandon();
+                }
+                this.pause(this.interval - (System.nanoTime() - start));
+            }
+        } catch (IOException e) {
+            Logger.getLogger(this).error(e);
+        }
+    }
+
+    /**
+     * Wait until the next round, or until a server is watched or the monitor is closed.
+     *
+     * @param remaining Time to wait, in nanoseconds.
+     */
+    private void pause(long remaining) {
+        if (remaining <= 0 || this.closed || this.added) {
+            return;
+        }
+        try {
+            this.selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining)));
+            this.selector.selectedKeys().clear();
+        } catch (IOException | ClosedSelectorException e) {
+            Logger.getLogger(this).error(e);
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    /**
+     * Check all the servers at once.
+     * The addresses are resolved before any connection starts, so a slow resolution does not consume the connection
+     * time of the other servers, and each connection has its own deadline.
+     *
+     * @throws IOException If the selector failed.
+     */
+    private void round() throws IOException {
+        Set<Probe> pending = new HashSet<>();
+        for (var entry : this.resolveAll().entrySet()) {
+            this.connect(entry.getKey(), entry.getValue(), pending);
+        }
+        while (!pending.isEmpty() && !this.closed) {
+            var now = System.nanoTime();
+            var next = Long.MAX_VALUE;
+            for (var iterator = pending.iterator(); iterator.hasNext(); ) {
+                var probe = iterator.next();
+                var remaining = probe.deadline() - now;
+                if (remaining <= 0) {
+                    this.complete(probe, false);
+                    iterator.remove();
+                } else {
+                    next = Math.min(next, remaining);
+                }
+            }
+            if (pending.isEmpty()) {
+                break;
+            }
+            this.selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(next)));
+            for (var key : this.selector.selectedKeys()) {
+                var probe = (Probe) key.attachment();
+                this.complete(probe, probe.finish());
+                pending.remove(probe);
+            }
+            this.selector.selectedKeys().clear();
+        }
+        for (var probe : pending) {
+            this.complete(probe, false);
+        }
+    }
+
+    /**
+     * Resolve the address of every watched server, in parallel on virtual threads.
+     *
+     * @return The address of each server, unresolved if its host name could not be resolved.
+     */
+    private Map<ServerAccessConfiguration, InetSocketAddress> resolveAll() {
+        Map<ServerAccessConfiguration, CompletableFuture<InetSocketAddress>> resolutions = new HashMap<>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (var entry : this.endpoints.entrySet()) {
+                var endpoint = entry.getValue();
+                resolutions.put(entry.getKey(), CompletableFuture
+                        .supplyAsync(() -> endpoint.resolve(DnsCache.SHARED), executor)
+                        .exceptionally(e -> InetSocketAddress.createUnresolved(endpoint.host(), endpoint.port())));
+            }
+        }
+        Map<ServerAccessConfiguration, InetSocketAddress> addresses = new HashMap<>();
+        resolutions.forEach((configuration, resolution) -> addresses.put(configuration, resolution.join()));
+        return addresses;
+    }
+
+    /**
+     * Close the connections left by a failed round, and mark every watched server offline.
+     */
+    private void abandon() {
+        try {
+            for (var key : this.selector.keys()) {
+                closeQuietly((SocketChannel) key.channel());
+            }
+            this.selector.selectNow();
+            this.selector.selectedKeys().clear();
+        } catch (IOException | ClosedSelectorException e) {
+            Logger.getLogger(this).error(e);
+        }
+        for (var configuration : this.endpoints.keySet()) {
+            this.publish(new EndpointStatus(configuration, false, Duration.ZERO, Instant.now()));
+        }
+    }
+
+    /**
+     * Start a non-blocking connection to a server.
+     *
+     * @param configuration Server to check.
+     * @param address       Server address.
+     * @param pending       Connections in progress, the new one is added if it did not complete immediately.
+     */
+    private void connect(ServerAccessConfiguration configuration, InetSocketAddress address, Set<Probe> pending) {
+        SocketChannel channel = null;
+        Probe probe = null;
+        try {
+            if (address.isUnresolved()) {
+                this.publish(new EndpointStatus(configuration, false, Duration.ZERO, Instant.now()));
+                return;
+            }
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            var start = System.nanoTime();
+            probe = new Probe(configuration, channel, start, start + this.timeout);
+            if (channel.connect(address)) {
+                this.complete(probe, true);
+            } else {
+                channel.register(this.selector, SelectionKey.OP_CONNECT, probe);
+                pending.add(probe);
+            }
+        } catch (IOException | RuntimeException e) {
+            if (probe != null) {
+                this.complete(probe, false);
+            } else {
+                closeQuietly(channel);
+                this.publish(new EndpointStatus(configuration, false, Duration.ZERO, Instant.now()));
+            }
+        }
+    }
+
+    /**
+     * Close a connection and publish its result.
+     *
+     * @param probe  Connection to close.
+     * @param online true if the connection succeeded.
+     */
+    private void complete(Probe probe, boolean online) {
+        var latency = Duration.ofNanos(System.nanoTime() - probe.start());
+        closeQuietly(probe.channel());
+        this.publish(new EndpointStatus(probe.configuration(), online, latency, Instant.now()));
+    }
+
+    /**
+     * Store a status, and notify the listeners if the availability changed.
+     * The status of a server no longer watched is discarded.
+     *
+     * @param status New status.
+     */
+    private void publish(EndpointStatus status) {
+        var previous = this.statuses.put(status.configuration(), status);
+        if (!this.endpoints.containsKey(status.configuration())) {
+            this.statuses.remove(status.configuration());
+            return;
+        }
+        if (previous == null || previous.online() != status.online()) {
+            for (var listener : this.listeners) {
+                try {
+                    listener.accept(status);
+                } catch (RuntimeException e) {
+                    Logger.getLogger(this).warning("Availability listener failed: {0}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Close a channel, ignoring failures.
+     *
+     * @param channel Channel to close, can be null.
+     */
+    private static void closeQuietly(SocketChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Nothing more to release.
+            }
+        }
+    }
+
+    /**
+     * A connection in progress.
+     *
+     * @param configuration Checked server.
+     * @param channel       Connecting channel.
+     * @param start         Time the connection started.
+     * @param deadline      Time after which the server is offline if the connection did not complete.
+     */
+    private record Probe(ServerAccessConfiguration configuration, SocketChannel channel, long start, long deadline) {
+
+        /**
+         * Complete the connection.
+         *
+         * @return true if the server accepted the connection.
+         */
+        private boolean finish() {
+            try {
+                return this.channel.finishConnect();
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2021-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.network;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of host name resolutions, kept for a limited time.
+ * Failed resolutions are cached for a shorter time, so an offline server does not cost a lookup at every check.
+ * The number of cached hosts is bounded, when full the expired resolutions are removed first, then the ones expiring first.
+ *
+ * @author Grégory Van den Borre
+ */
+final class DnsCache {
+
+    /**
+     * Cache shared by the availability checkers.
+     */
+    static final DnsCache SHARED = new DnsCache(Duration.ofMinutes(1), Duration.ofSeconds(10));
+
+    /**
+     * Default maximum number of cached hosts.
+     */
+    private static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    /**
+     * Time to keep a resolved address, in nanoseconds.
+     */
+    private final long ttl;
+
+    /**
+     * Time to keep a failed resolution, in nanoseconds.
+     */
+    private final long negativeTtl;
+
+    /**
+     * Maximum number of cached hosts.
+     */
+    private final int maxEntries;
+
+    /**
+     * Cached resolutions, by host name.
+     */
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new cache.
+     *
+     * @param ttl         Time to keep a resolved address.
+     * @param negativeTtl Time to keep a failed resolution.
+     */
+    DnsCache(Duration ttl, Duration negativeTtl) {
+        this(ttl, negativeTtl, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Creates a new cache.
+     *
+     * @param ttl         Time to keep a resolved address.
+     * @param negativeTtl Time to keep a failed resolution.
+     * @param maxEntries  Maximum number of cached hosts.
+     * @throws IllegalArgumentException If the maximum number of hosts is not positive.
+     */
+    DnsCache(Duration ttl, Duration negativeTtl, int maxEntries) {
+        super();
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Maximum number of cached hosts must be positive.");
+        }
+        this.ttl = ttl.toNanos();
+        this.negativeTtl = negativeTtl.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Resolve a host name, from the cache if the resolution is recent enough.
+     *
+     * @param host Host name or address literal.
+     * @return The address, empty if the host could not be resolved.
+     */
+    Optional<InetAddress> resolve(String host) {
+        var now = System.nanoTime();
+        var entry = this.entries.get(host);
+        if (entry == null || now - entry.expiresAt() > 0) {
+            entry = this.lookup(host, now);
+            if (!this.entries.containsKey(host) && this.entries.size() >= this.maxEntries) {
+                this.evict(now);
+            }
+            this.entries.put(host, entry);
+        }
+        return Optional.ofNullable(entry.address());
+    }
+
+    /**
+     * Provide the number of cached hosts.
+     *
+     * @return The number of cached hosts.
+     */
+    int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Make room for a new host, by removing the expired resolutions, or the one expiring first if none is expired.
+     *
+     * @param now Current time, in nanoseconds.
+     */
+    private void evict(long now) {
+        this.entries.values().removeIf(e -> now - e.expiresAt() > 0);
+        if (this.entries.size() >= this.maxEntries) {
+            this.entries.entrySet().stream()
+                    .min((a, b) -> Long.compare(a.getValue().expiresAt() - now, b.getValue().expiresAt() - now))
+                    .ifPresent(e -> this.entries.remove(e.getKey(), e.getValue()));
+        }
+    }
+
+    /**
+     * Resolve a host name with the system resolver.
+     *
+     * @param host Host name or address literal.
+     * @param now  Current time, in nanoseconds.
+     * @return The resolution, with a null address if it failed.
+     */
+    private Entry lookup(String host, long now) {
+        try {
+            return new Entry(InetAddress.getByName(host), now + this.ttl);
+        } catch (UnknownHostException | SecurityException e) {
+            return new Entry(null, now + this.negativeTtl);
+        }
+    }
+
+    /**
+     * A cached resolution.
+     *
+     * @param address   Resolved address, null if the resolution failed.
+     * @param expiresAt Time after which the host must be resolved again, in nanoseconds.
+     */
+    private record Entry(InetAddress address, long expiresAt) {
+    }
+}
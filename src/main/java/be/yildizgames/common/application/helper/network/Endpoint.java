@@ -0,0 +1,138 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2021-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.network;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+
+/**
+ * Server location, parsed once from its access configuration.
+ *
+ * @param uri  Server uri.
+ * @param host Server host name or address, without brackets for IPv6 addresses.
+ * @param port Server port, the scheme default port if the url has none.
+ * @author Grégory Van den Borre
+ */
+record Endpoint(URI uri, String host, int port) {
+
+    /**
+     * Parse the server url of a configuration.
+     * Supported forms are http://host[:port], https://host[:port], and host:port, IPv6 addresses are written in brackets.
+     * Host names the uri syntax rejects, like names with an underscore, are read from the raw authority.
+     *
+     * @param configuration Server access configuration.
+     * @return The endpoint.
+     * @throws IllegalArgumentException If the url is not valid.
+     */
+    static Endpoint of(ServerAccessConfiguration configuration) {
+        var url = configuration.getServerUrl();
+        if (url == null) {
+            throw new IllegalArgumentException("Invalid server url: null");
+        }
+        try {
+            var uri = new URI(url.contains("://") ? url : "tcp://" + url);
+            var host = uri.getHost();
+            var port = uri.getPort();
+            if (host == null) {
+                var authority = uri.getRawAuthority();
+                if (authority == null) {
+                    throw new IllegalArgumentException("Invalid server url, no host: " + url);
+                }
+                authority = authority.substring(authority.lastIndexOf('@') + 1);
+                var separator = authority.lastIndexOf(':');
+                if (separator > authority.lastIndexOf(']')) {
+                    port = parsePort(authority.substring(separator + 1), url);
+                    authority = authority.substring(0, separator);
+                }
+                if (authority.isEmpty()) {
+                    throw new IllegalArgumentException("Invalid server url, no host: " + url);
+                }
+                host = authority;
+            }
+            if (host.startsWith("[") && host.endsWith("]")) {
+                host = host.substring(1, host.length() - 1);
+            }
+            port = port != -1 ? port : defaultPort(uri.getScheme());
+            if (port == -1) {
+                throw new IllegalArgumentException("Invalid server url, no port: " + url);
+            }
+            return new Endpoint(uri, host, port);
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid server url: " + url, e);
+        }
+    }
+
+    /**
+     * Check if the server is reached over HTTP.
+     *
+     * @return true for http and https urls.
+     */
+    boolean isHttp() {
+        return "http".equalsIgnoreCase(this.uri.getScheme()) || "https".equalsIgnoreCase(this.uri.getScheme());
+    }
+
+    /**
+     * Resolve the endpoint address.
+     *
+     * @param cache DNS cache to use.
+     * @return The socket address, unresolved if the host name could not be resolved.
+     */
+    InetSocketAddress resolve(DnsCache cache) {
+        return cache.resolve(this.host)
+                .map(a -> new InetSocketAddress(a, this.port))
+                .orElseGet(() -> InetSocketAddress.createUnresolved(this.host, this.port));
+    }
+
+    /**
+     * Parse the port of an authority the uri could not parse, like a host name with an underscore.
+     *
+     * @param port Port text, empty if the authority has no port.
+     * @param url  Parsed url, for the error message.
+     * @return The port, -1 if there is none.
+     * @throws IllegalArgumentException If the port is not valid.
+     */
+    private static int parsePort(String port, String url) {
+        if (port.isEmpty()) {
+            return -1;
+        }
+        try {
+            var value = Integer.parseInt(port);
+            if (value < 0 || value > 65535) {
+                throw new IllegalArgumentException("Invalid server url, port out of range: " + url);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid server url, invalid port: " + url, e);
+        }
+    }
+
+    /**
+     * Provide the default port of a scheme.
+     *
+     * @param scheme Url scheme.
+     * @return The default port, -1 if the scheme has none.
+     */
+    private static int defaultPort(String scheme) {
+        if ("http".equalsIgnoreCase(scheme)) {
+            return 80;
+        }
+        if ("https".equalsIgnoreCase(scheme)) {
+            return 443;
+        }
+        return -1;
+    }
+}
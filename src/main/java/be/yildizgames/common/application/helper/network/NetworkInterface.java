@@ -15,19 +15,21 @@
  */
 package be.yildizgames.common.application.helper.network;
 
-import java.net.DatagramSocket;
 import java.net.InetAddress;
+import java.time.Duration;
+import java.util.List;
 
 /**
  * Provide the IP address of the machine on the local network.
+ * The addresses are read from the network interfaces, so no network access is needed, and refreshed periodically.
  * @author Grégory Van den Borre
  */
 public class NetworkInterface {
 
     /**
-     * Cached value to avoid to have to create the socket more than once.
+     * Discovery of the addresses, refreshed every 30 seconds.
      */
-    private static String address;
+    private static final AddressDiscovery DISCOVERY = new AddressDiscovery(Duration.ofSeconds(30));
 
     /**
      * Private constructor to prevent instantiation.
@@ -38,19 +40,31 @@ public class NetworkInterface {
 
     /**
      * Provide the IP address.
-     * @return The ip V 4 address, never null.
-     * @throws IllegalStateException if an error occurred.
+     * @return The best ranked address, IPv4 if the machine has one, never null.
+     * @throws IllegalStateException if no address was found.
      */
     public static String getPreferredAddress() {
-        if(address == null) {
-            try (final DatagramSocket socket = new DatagramSocket()) {
-                socket.connect(InetAddress.getByName("8.8.8.8"), 8080);
-                address = socket.getLocalAddress().getHostAddress();
-            } catch (Exception e) {
-                throw new IllegalArgumentException("No address found", e);
-            }
+        var addresses = DISCOVERY.addresses();
+        if (addresses.isEmpty()) {
+            throw new IllegalStateException("No address found");
         }
-        return address;
+        return addresses.getFirst().getHostAddress();
+    }
+
+    /**
+     * Provide all the addresses of the machine, loopback and virtual interfaces excluded.
+     * @return The addresses, the best first, private IPv4 then public IPv4 then IPv6.
+     */
+    public static List<InetAddress> getAddresses() {
+        return DISCOVERY.addresses();
+    }
+
+    /**
+     * Enumerate the network interfaces again now, instead of waiting for the periodic refresh.
+     * @return The new addresses, the best first.
+     */
+    public static List<InetAddress> refresh() {
+        return DISCOVERY.refresh();
     }
 
 }
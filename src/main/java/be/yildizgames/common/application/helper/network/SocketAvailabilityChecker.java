@@ -15,8 +15,21 @@
  */
 package be.yildizgames.common.application.helper.network;
 
+import be.yildizgames.common.logging.Logger;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
- * Checks the availability of a network resource using socket connections.
+ * Checks the availability of a network resource using socket connections or HTTP requests.
+ * By default, the resource is checked by the caller when the last check is too old.
+ * In background refresh mode, it is checked periodically by a virtual thread, and the callers only read the last status.
+ * The checker is thread safe and lock free, only one check runs at a time, other callers get the checking status meanwhile.
  *
  * @author Grégory Van den Borre
  */
@@ -28,14 +41,19 @@ public class SocketAvailabilityChecker implements AvailabilityChecker {
     private static final long DELAY = 60000L;
 
     /**
-     * The timestamp of the last availability check.
+     * The current state, replaced atomically.
+     */
+    private final AtomicReference<State> state = new AtomicReference<>(new State(null, null, 0));
+
+    /**
+     * Listeners notified when the status changes.
      */
-    private long lastCheck = 0;
+    private final List<AvailabilityListener> listeners = new CopyOnWriteArrayList<>();
 
     /**
-     * The current connection status.
+     * Executor of the periodic check in background refresh mode, null otherwise.
      */
-    private ConnectionStatus current;
+    private volatile ScheduledExecutorService refresher;
 
     /**
      * Handles the socket connection check.
@@ -43,36 +61,174 @@ public class SocketAvailabilityChecker implements AvailabilityChecker {
     private final SocketPingCheck checker;
 
     /**
-     * Creates a new checker with the given server configuration.
+     * Creates a new checker with the given server configuration, checked with a TCP connection.
      *
      * @param configuration the server access configuration
+     * @throws IllegalArgumentException If the server url is not valid.
      */
     public SocketAvailabilityChecker(ServerAccessConfiguration configuration) {
-        this.checker = new SocketPingCheck(configuration);
+        this(configuration, ProbeStrategy.TCP_CONNECT);
+    }
+
+    /**
+     * Creates a new checker with the given server configuration.
+     *
+     * @param configuration the server access configuration
+     * @param strategy      how the server is checked
+     * @throws IllegalArgumentException If the server url is not valid.
+     */
+    public SocketAvailabilityChecker(ServerAccessConfiguration configuration, ProbeStrategy strategy) {
+        this.checker = new SocketPingCheck(configuration, strategy);
+    }
+
+    /**
+     * Check the resource periodically in a virtual thread, the status is then read without blocking the callers.
+     * The resource is reported as checking until the first check completes.
+     *
+     * @return This checker.
+     */
+    public final synchronized SocketAvailabilityChecker withBackgroundRefresh() {
+        if (this.refresher == null) {
+            this.state.updateAndGet(s -> new State(ConnectionStatus.CHECKING, s.lastResult(), s.lastCheck()));
+            var executor = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("availability-check").factory());
+            this.refresher = executor;
+            executor.scheduleWithFixedDelay(() -> this.refresh(executor), 0, DELAY, TimeUnit.MILLISECONDS);
+        }
+        return this;
+    }
+
+    /**
+     * Stop checking the resource in background, the callers check it again when the last check is too old.
+     * If no check completed yet, the resource is no longer reported as checking.
+     * A check interrupted by the stop is discarded, the listeners are not notified.
+     */
+    public final synchronized void stopBackgroundRefresh() {
+        if (this.refresher != null) {
+            this.refresher.shutdownNow();
+            this.refresher = null;
+            this.abort();
+        }
+    }
+
+    /**
+     * Register a listener notified when the resource becomes available or unavailable.
+     * Listeners are called from the thread running the check.
+     *
+     * @param listener Listener to notify.
+     * @return This checker.
+     */
+    public final SocketAvailabilityChecker subscribe(AvailabilityListener listener) {
+        this.listeners.add(Objects.requireNonNull(listener));
+        return this;
+    }
+
+    /**
+     * Remove a listener.
+     *
+     * @param listener Listener to remove.
+     */
+    public final void unsubscribe(AvailabilityListener listener) {
+        this.listeners.remove(listener);
     }
 
     /**
      * Responds to an availability check request.
+     * In background refresh mode, the last status is returned without checking.
+     * Otherwise, when the last check is too old, the first caller to switch the state to checking runs the check.
      *
      * @return the availability status.
      */
     private ConnectionStatus respond() {
-        if (this.current == ConnectionStatus.CHECKING) {
-            return this.current;
+        var current = this.state.get();
+        if (this.refresher != null || current.status() == ConnectionStatus.CHECKING) {
+            return current.status();
         }
         var now = System.currentTimeMillis();
-        if (now - this.lastCheck < DELAY) {
-            return this.current;
+        if (now - current.lastCheck() < DELAY && current.status() != null) {
+            return current.status();
         }
-        this.current = ConnectionStatus.CHECKING;
-        this.current = this.checker.respond() ? ConnectionStatus.ONLINE : ConnectionStatus.OFFLINE;
-        this.lastCheck = now;
-        return this.current;
+        if (!this.state.compareAndSet(current, new State(ConnectionStatus.CHECKING, current.lastResult(), current.lastCheck()))) {
+            return this.state.get().status();
+        }
+        return this.check(now);
+    }
+
+    /**
+     * Check the resource from the background thread.
+     * The result is discarded if the background refresh was stopped during the check, as the check may have been interrupted.
+     *
+     * @param executor Executor running the refresh.
+     */
+    private void refresh(ScheduledExecutorService executor) {
+        try {
+            var time = System.currentTimeMillis();
+            var status = this.probe();
+            if (Thread.currentThread().isInterrupted() || executor.isShutdown()) {
+                return;
+            }
+            this.publish(status, time);
+        } catch (RuntimeException e) {
+            Logger.getLogger(this).warning("Availability check failed: {0}", e.getMessage());
+        }
+    }
+
+    /**
+     * Check the resource, store the result, and notify the listeners if the resource availability changed.
+     *
+     * @param time Time of the check.
+     * @return The checked status.
+     */
+    private ConnectionStatus check(long time) {
+        var status = this.probe();
+        this.publish(status, time);
+        return status;
+    }
+
+    /**
+     * Check the resource, a failed check is offline.
+     * If the check fails with an error, the checking state is left before the error is thrown.
+     *
+     * @return The checked status.
+     */
+    private ConnectionStatus probe() {
+        ConnectionStatus status = null;
+        try {
+            status = this.checker.respond() ? ConnectionStatus.ONLINE : ConnectionStatus.OFFLINE;
+        } catch (RuntimeException e) {
+            status = ConnectionStatus.OFFLINE;
+            Logger.getLogger(this).warning("Availability check failed: {0}", e.getMessage());
+        } finally {
+            if (status == null) {
+                this.abort();
+            }
+        }
+        return status;
+    }
+
+    /**
+     * Store the result of a check, and notify the listeners if the resource availability changed.
+     *
+     * @param status Checked status.
+     * @param time   Time of the check.
+     */
+    private void publish(ConnectionStatus status, long time) {
+        var previous = this.state.getAndSet(new State(status, status, time));
+        if (previous.lastResult() != status) {
+            var online = status == ConnectionStatus.ONLINE;
+            this.listeners.forEach(l -> l.availabilityChanged(online));
+        }
+    }
+
+    /**
+     * Leave the checking state without a new result, the last result is reported again and a new check can start.
+     */
+    private void abort() {
+        this.state.updateAndGet(s -> s.status() == ConnectionStatus.CHECKING ? new State(s.lastResult(), s.lastResult(), s.lastCheck()) : s);
     }
 
     @Override
     public final boolean isOnline() {
-        return this.respond().equals(ConnectionStatus.ONLINE);
+        return this.respond() == ConnectionStatus.ONLINE;
     }
 
     /**
@@ -81,7 +237,7 @@ public class SocketAvailabilityChecker implements AvailabilityChecker {
      * @return true if checking availability, false otherwise
      */
     public final boolean isChecking() {
-        return this.respond().equals(ConnectionStatus.CHECKING);
+        return this.respond() == ConnectionStatus.CHECKING;
     }
 
     /**
@@ -90,7 +246,17 @@ public class SocketAvailabilityChecker implements AvailabilityChecker {
      * @return true if offline, false otherwise
      */
     public final boolean isOffLine() {
-        return this.respond().equals(ConnectionStatus.OFFLINE);
+        return this.respond() == ConnectionStatus.OFFLINE;
+    }
+
+    /**
+     * Immutable state of the checker.
+     *
+     * @param status     Status returned to the callers, checking while a check runs, null before the first check.
+     * @param lastResult Result of the last completed check, null before the first check.
+     * @param lastCheck  Time of the last completed check.
+     */
+    private record State(ConnectionStatus status, ConnectionStatus lastResult, long lastCheck) {
     }
 
     /**
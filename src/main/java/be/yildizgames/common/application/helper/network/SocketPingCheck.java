@@ -16,28 +16,75 @@
 package be.yildizgames.common.application.helper.network;
 
 import java.io.IOException;
-import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Objects;
 
 /**
- * Checks server availability by connecting to the server via a socket.
+ * Checks server availability by connecting to the server via a socket, or by sending it an HTTP HEAD request.
+ * The server url is parsed once, and its host name resolved through a shared DNS cache.
  *
  * @author Grégory Van den Borre
  */
 class SocketPingCheck {
 
     /**
-     * The server access configuration.
+     * Maximum time to wait for the server.
      */
-    private final ServerAccessConfiguration configuration;
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    /**
+     * The server endpoint.
+     */
+    private final Endpoint endpoint;
+
+    /**
+     * How the server is checked.
+     */
+    private final ProbeStrategy strategy;
+
+    /**
+     * Cache used to resolve the server host name.
+     */
+    private final DnsCache cache;
 
     /**
      * Creates a new checker with the given configuration.
      *
      * @param configuration the server configuration
+     * @param strategy      how the server is checked
+     * @throws IllegalArgumentException If the server url is not valid.
      */
-    SocketPingCheck(ServerAccessConfiguration configuration) {
-        this.configuration = configuration;
+    SocketPingCheck(ServerAccessConfiguration configuration, ProbeStrategy strategy) {
+        this(Endpoint.of(configuration), strategy, DnsCache.SHARED);
+    }
+
+    /**
+     * Creates a new checker for an endpoint.
+     *
+     * @param endpoint the server endpoint
+     * @param strategy how the server is checked
+     * @param cache    cache used to resolve the server host name
+     */
+    SocketPingCheck(Endpoint endpoint, ProbeStrategy strategy, DnsCache cache) {
+        this.endpoint = endpoint;
+        this.strategy = Objects.requireNonNull(strategy);
+        this.cache = cache;
+    }
+
+    /**
+     * Attempts to reach the server.
+     *
+     * @return true if the server responds, false otherwise
+     */
+    final boolean respond() {
+        if (this.strategy == ProbeStrategy.HTTP_HEAD && this.endpoint.isHttp()) {
+            return this.head();
+        }
+        return this.connect();
     }
 
     /**
@@ -45,14 +92,57 @@ class SocketPingCheck {
      *
      * @return true if the connection succeeds, false otherwise
      */
-    final boolean respond() {
-        var host = configuration.getServerUrl().replace("http://", "").split(":")[0];
-        int port = Integer.parseInt(configuration.getServerUrl().replace("http://", "").split(":")[1].replace("/", ""));
+    private boolean connect() {
+        var address = this.endpoint.resolve(this.cache);
+        if (address.isUnresolved()) {
+            return false;
+        }
         try (var socket = new Socket()) {
-            socket.connect(new InetSocketAddress(host, port), 5000);
+            socket.connect(address, (int) TIMEOUT.toMillis());
             return true;
         } catch (IOException e) {
-            return false; // Either timeout or unreachable or failed DNS lookup.
+            return false; // Either timeout or unreachable.
+        }
+    }
+
+    /**
+     * Send a HEAD request to the server, reusing the pooled connection when there is one.
+     *
+     * @return true if the server responds with a status below 500, false otherwise
+     */
+    private boolean head() {
+        var request = HttpRequest.newBuilder(this.endpoint.uri())
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .timeout(TIMEOUT)
+                .build();
+        try {
+            return Client.INSTANCE.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 500;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Holder of the HTTP client shared by all the checkers, created on first use.
+     */
+    private static final class Client {
+
+        /**
+         * Shared client, it keeps the connections alive between checks.
+         */
+        private static final HttpClient INSTANCE = HttpClient.newBuilder()
+                .connectTimeout(TIMEOUT)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+
+        /**
+         * Not instantiable.
+         */
+        private Client() {
+            super();
         }
     }
 }
@@ -18,6 +18,8 @@ package be.yildizgames.common.application.helper.restarter;
 import be.yildizgames.common.logging.Logger;
 
 import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
 
 /**
  * Handles restarting the application java process.
@@ -41,6 +43,26 @@ public class ApplicationRestarter implements Restarter {
      */
     private final String javaPath;
 
+    /**
+     * Class data sharing archive used by the restarted process, null if not used.
+     */
+    private ClassDataSharing classDataSharing;
+
+    /**
+     * Create the class data sharing archive with a training run before restarting, when the application changed.
+     */
+    private boolean training;
+
+    /**
+     * Restart with the command line of the running process instead of the jar name.
+     */
+    private boolean replayCommandLine;
+
+    /**
+     * JVM arguments added to the restarted process command line.
+     */
+    private List<String> extraJvmArguments = List.of();
+
     /**
      * Creates a new restarter with the given JAR name.
      *
@@ -64,6 +86,37 @@ public class ApplicationRestarter implements Restarter {
         this.javaPath = javaPath.endsWith(File.separator) ? javaPath : javaPath + File.separator;
     }
 
+    /**
+     * Restart the application with a class data sharing archive, to reduce the class loading time of the new process.
+     * Without training, the archive is created by the JVM when the restarted process exits, and used from the next start.
+     * With training, when the archive is older than the application jar, typically after an update, a training run of
+     * the application creates it before restarting, the restarted process uses it at once.
+     * The training run does not start the application, it only runs the workload set with Application.withClassDataSharingTraining.
+     *
+     * @param archive  Archive file.
+     * @param training true to create an outdated archive with a training run before restarting.
+     * @return This restarter.
+     */
+    public final ApplicationRestarter withClassDataSharing(Path archive, boolean training) {
+        this.classDataSharing = new ClassDataSharing(archive);
+        this.training = training;
+        return this;
+    }
+
+    /**
+     * Restart the application with the command line of the running process, with the same JVM options and arguments.
+     * The command line is read from the operating system, or rebuilt from the JVM input arguments, the restart fails
+     * if neither is available, instead of starting with default JVM settings.
+     *
+     * @param extraJvmArguments JVM arguments to add, they take precedence over the current ones.
+     * @return This restarter.
+     */
+    public final ApplicationRestarter withCurrentCommandLine(String... extraJvmArguments) {
+        this.replayCommandLine = true;
+        this.extraJvmArguments = List.of(extraJvmArguments);
+        return this;
+    }
+
     @Override
     public final void restart() {
         restart(0);
@@ -73,11 +126,19 @@ public class ApplicationRestarter implements Restarter {
     public final void restart(long msBeforeRestart) {
         try {
             this.logger.info("Restarting the system.");
-            String[] command = {this.javaPath +
-                    "java -jar " +
-                    this.app};
+            var command = this.replayCommandLine
+                    ? JvmCommandLine.current().withJvmOptions(this.extraJvmArguments)
+                    : new JvmCommandLine(this.javaPath + "java", List.of(), List.of("-jar", this.app));
+            if (this.classDataSharing != null) {
+                command = ClassDataSharing.withoutOptions(command);
+                if (this.training && this.classDataSharing.isOutdated(command.jar().orElse(null))) {
+                    this.logger.info("Creating the class data sharing archive.");
+                    this.classDataSharing.train(command);
+                }
+                command = command.withJvmOptions(this.classDataSharing.jvmOptions());
+            }
             Thread.sleep(msBeforeRestart);
-            Runtime.getRuntime().exec(command);
+            new ProcessBuilder(command.toCommand()).inheritIO().start();
             System.exit(0);
         } catch (Exception e) {
             throw new IllegalStateException("The application could not restart", e);
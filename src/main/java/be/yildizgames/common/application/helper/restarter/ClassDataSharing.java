@@ -0,0 +1,136 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2023-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.restarter;
+
+import be.yildizgames.common.logging.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class data sharing archive used to start the application with its classes already parsed and verified.
+ * The archive is created by a training run of the application started with -XX:ArchiveClassesAtExit.
+ * The training run is opt-in, it is only made by an ApplicationRestarter with training enabled. Application.start detects
+ * it before starting anything, runs the workload set with Application.withClassDataSharingTraining if any, and exits.
+ * Without a training run, the JVM creates the archive on the first exit and recreates it when the application changes.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class ClassDataSharing {
+
+    /**
+     * System property set to true in a training run.
+     */
+    public static final String TRAINING_PROPERTY = "yildiz.cds.training";
+
+    /**
+     * Maximum duration of a training run.
+     */
+    private static final Duration TRAINING_TIMEOUT = Duration.ofMinutes(2);
+
+    /**
+     * Archive file.
+     */
+    private final Path archive;
+
+    /**
+     * Creates a new class data sharing configuration.
+     *
+     * @param archive Archive file.
+     */
+    public ClassDataSharing(Path archive) {
+        super();
+        this.archive = archive.toAbsolutePath();
+    }
+
+    /**
+     * Check if the application runs to create a class data sharing archive, and must exit once started.
+     *
+     * @return true in a training run.
+     */
+    public static boolean isTrainingRun() {
+        return Boolean.getBoolean(TRAINING_PROPERTY);
+    }
+
+    /**
+     * Provide the JVM options to start with the archive, the JVM creates it at exit if it is missing or outdated.
+     *
+     * @return The JVM options.
+     */
+    public List<String> jvmOptions() {
+        return List.of("-XX:+AutoCreateSharedArchive", "-XX:SharedArchiveFile=" + this.archive);
+    }
+
+    /**
+     * Check if the archive is older than the application, typically after an update.
+     *
+     * @param application Application jar, null if the application is not launched from a jar.
+     * @return true if the archive is missing or older than the jar.
+     */
+    boolean isOutdated(Path application) {
+        try {
+            return Files.notExists(this.archive)
+                    || (application != null && Files.getLastModifiedTime(this.archive).compareTo(Files.getLastModifiedTime(application)) < 0);
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Remove the class data sharing options from a command line.
+     *
+     * @param command Command line.
+     * @return The command line without class data sharing options.
+     */
+    static JvmCommandLine withoutOptions(JvmCommandLine command) {
+        return command
+                .withoutJvmOptions("-XX:SharedArchiveFile=")
+                .withoutJvmOptions("-XX:+AutoCreateSharedArchive")
+                .withoutJvmOptions("-XX:ArchiveClassesAtExit=")
+                .withoutJvmOptions("-D" + TRAINING_PROPERTY + "=");
+    }
+
+    /**
+     * Create the archive with a training run of the application.
+     * The application exits when start is called, after its training workload, the run is stopped if it did not exit after two minutes.
+     *
+     * @param command Command line of the application, without class data sharing options.
+     * @return true if the archive was created.
+     */
+    boolean train(JvmCommandLine command) {
+        var training = command.withJvmOptions(List.of("-XX:ArchiveClassesAtExit=" + this.archive, "-D" + TRAINING_PROPERTY + "=true"));
+        try {
+            Files.deleteIfExists(this.archive);
+            var process = new ProcessBuilder(training.toCommand())
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            if (!process.waitFor(TRAINING_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                process.destroy();
+                process.waitFor(TRAINING_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        } catch (IOException e) {
+            Logger.getLogger(this).warning("Class data sharing training run failed: {0}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return Files.exists(this.archive);
+    }
+}
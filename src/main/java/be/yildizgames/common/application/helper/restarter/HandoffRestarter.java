@@ -0,0 +1,249 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2023-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.restarter;
+
+import be.yildizgames.common.logging.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Restart the application without downtime: the new process is started while the current one keeps serving, and the
+ * current process only drains and exits once the new one reports it is ready.
+ * The new process reports its readiness with signalReady, called by Application once started, over a loopback connection
+ * authenticated with a random token, the port and the token are passed in its environment so other users cannot read
+ * them from its command line. If it does not report in time, it is stopped and the current process keeps running.
+ * Servers bind their listening port with bindReusable, so both processes can listen on it during the handoff.
+ *
+ * @author Grégory Van den Borre
+ */
+public class HandoffRestarter implements Restarter {
+
+    /**
+     * Environment variable giving the new process the port to report its readiness to.
+     */
+    public static final String PORT_VARIABLE = "YILDIZ_HANDOFF_PORT";
+
+    /**
+     * Environment variable giving the new process the token to report its readiness with.
+     */
+    public static final String TOKEN_VARIABLE = "YILDIZ_HANDOFF_TOKEN";
+
+    /**
+     * Default maximum delay for the new process to be ready.
+     */
+    private static final Duration DEFAULT_READY_TIMEOUT = Duration.ofMinutes(2);
+
+    /**
+     * Logger for output.
+     */
+    private final Logger logger = Logger.getLogger(HandoffRestarter.class);
+
+    /**
+     * Called once the new process is ready, to stop accepting work and finish the current one.
+     */
+    private final Runnable drain;
+
+    /**
+     * Maximum delay for the new process to be ready.
+     */
+    private Duration readyTimeout = DEFAULT_READY_TIMEOUT;
+
+    /**
+     * JVM arguments added to the new process command line.
+     */
+    private List<String> extraJvmArguments = List.of();
+
+    /**
+     * Creates a new handoff restarter.
+     *
+     * @param drain Called once the new process is ready, to stop accepting work and finish the current one before exiting.
+     */
+    public HandoffRestarter(Runnable drain) {
+        super();
+        this.drain = Objects.requireNonNull(drain);
+    }
+
+    /**
+     * Set the maximum delay for the new process to be ready, default is two minutes.
+     *
+     * @param timeout Maximum delay.
+     * @return This restarter.
+     */
+    public final HandoffRestarter withReadyTimeout(Duration timeout) {
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Ready timeout must be positive.");
+        }
+        this.readyTimeout = timeout;
+        return this;
+    }
+
+    /**
+     * Add JVM arguments to the new process, which is otherwise started with the command line of the current one.
+     *
+     * @param extraJvmArguments JVM arguments to add, they take precedence over the current ones.
+     * @return This restarter.
+     */
+    public final HandoffRestarter withJvmArguments(String... extraJvmArguments) {
+        this.extraJvmArguments = List.of(extraJvmArguments);
+        return this;
+    }
+
+    /**
+     * Report to the process being replaced that this process is ready, if it was started by a handoff restart.
+     * Does nothing otherwise.
+     */
+    public static void signalReady() {
+        signalReady(System.getenv());
+    }
+
+    /**
+     * Report to the process being replaced that this process is ready, if the environment contains the handoff port and token.
+     *
+     * @param environment Environment of this process.
+     */
+    static void signalReady(Map<String, String> environment) {
+        var port = environment.get(PORT_VARIABLE);
+        var token = environment.get(TOKEN_VARIABLE);
+        if (port == null || token == null) {
+            return;
+        }
+        try (var socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(port));
+             OutputStream out = socket.getOutputStream()) {
+            out.write((token + "\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        } catch (IOException | NumberFormatException e) {
+            Logger.getLogger(HandoffRestarter.class).warning("Readiness could not be reported to the previous process: {0}", e.getMessage());
+        }
+    }
+
+    /**
+     * Open a listening socket that the process replacing this one can bind too, with SO_REUSEPORT where the system
+     * supports it, so connections are accepted without interruption during a handoff.
+     *
+     * @param address Address to listen on.
+     * @return The bound server socket channel.
+     * @throws IOException If the socket could not be bound.
+     */
+    public static ServerSocketChannel bindReusable(InetSocketAddress address) throws IOException {
+        var channel = ServerSocketChannel.open();
+        try {
+            if (channel.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT)) {
+                channel.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+            }
+            channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            return channel.bind(address);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public final void restart() {
+        restart(0);
+    }
+
+    /**
+     * Start the new process, wait for it to be ready, drain and exit.
+     * If the new process is not ready in time, it is stopped and the current process keeps running.
+     *
+     * @param msBeforeRestart Delay before restarting in ms.
+     * @throws IllegalStateException If the new process could not be started or was not ready in time.
+     */
+    @Override
+    public final void restart(long msBeforeRestart) {
+        Process process = null;
+        try (var server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            Thread.sleep(msBeforeRestart);
+            var random = new byte[16];
+            new SecureRandom().nextBytes(random);
+            var token = HexFormat.of().formatHex(random);
+            var command = JvmCommandLine.current().withJvmOptions(this.extraJvmArguments);
+            var builder = new ProcessBuilder(command.toCommand()).inheritIO();
+            builder.environment().put(PORT_VARIABLE, String.valueOf(server.getLocalPort()));
+            builder.environment().put(TOKEN_VARIABLE, token);
+            this.logger.info("Starting the new process.");
+            process = builder.start();
+            this.awaitReady(server, token, process);
+        } catch (IOException | IllegalStateException e) {
+            if (process != null) {
+                process.destroy();
+            }
+            throw new IllegalStateException("Handoff failed, the current process keeps running.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (process != null) {
+                process.destroy();
+            }
+            throw new IllegalStateException("Handoff interrupted, the current process keeps running.", e);
+        }
+        this.logger.info("New process ready, draining the current one.");
+        try {
+            this.drain.run();
+        } finally {
+            System.exit(0);
+        }
+    }
+
+    /**
+     * Wait for the new process to report it is ready.
+     *
+     * @param server  Socket the new process reports to.
+     * @param token   Token the new process reports with.
+     * @param process New process.
+     * @throws IOException           If the report could not be received.
+     * @throws IllegalStateException If the process exited or was not ready in time.
+     */
+    private void awaitReady(ServerSocket server, String token, Process process) throws IOException {
+        var deadline = System.nanoTime() + this.readyTimeout.toNanos();
+        while (true) {
+            var remaining = Duration.ofNanos(deadline - System.nanoTime());
+            if (remaining.isNegative() || remaining.isZero()) {
+                throw new IllegalStateException("The new process was not ready after " + this.readyTimeout + ".");
+            }
+            if (!process.isAlive()) {
+                throw new IllegalStateException("The new process exited with code " + process.exitValue() + ".");
+            }
+            server.setSoTimeout(Math.clamp(remaining.toMillis(), 1, 1000));
+            try (var socket = server.accept()) {
+                socket.setSoTimeout(1000);
+                var reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                if (token.equals(reader.readLine())) {
+                    return;
+                }
+            } catch (SocketTimeoutException e) {
+                // Check the process and the deadline again.
+            }
+        }
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2023-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.restarter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Command line of a java process, split between the JVM options and the launched application with its arguments.
+ * Argument files given with @file before the application are expanded, so the JVM options they contain can be
+ * removed or overridden.
+ *
+ * @param java        Java executable.
+ * @param jvmOptions  JVM options.
+ * @param application Launched application, as -jar with the jar, -m with the module, or the main class, followed by its arguments.
+ * @author Grégory Van den Borre
+ */
+record JvmCommandLine(String java, List<String> jvmOptions, List<String> application) {
+
+    /**
+     * JVM options followed by a separate value.
+     */
+    private static final Set<String> OPTIONS_WITH_VALUE = Set.of(
+            "-cp", "-classpath", "--class-path", "-p", "--module-path", "--upgrade-module-path", "--add-modules",
+            "--add-reads", "--add-exports", "--add-opens", "--limit-modules", "--patch-module", "--enable-native-access");
+
+    JvmCommandLine {
+        jvmOptions = List.copyOf(jvmOptions);
+        application = List.copyOf(application);
+    }
+
+    /**
+     * Provide the command line of the running process.
+     * It is read from the operating system, or rebuilt from the JVM input arguments and the launched jar, module or
+     * main class if the system does not provide it. In that case, the application arguments cannot be told apart
+     * reliably, so the command line is only rebuilt for an application launched without arguments.
+     *
+     * @return The current command line.
+     * @throws IllegalStateException If the command line is not available.
+     */
+    static JvmCommandLine current() {
+        var info = ProcessHandle.current().info();
+        if (info.command().isPresent() && info.arguments().isPresent()) {
+            return parse(info.command().get(), Arrays.asList(info.arguments().get()));
+        }
+        var launched = System.getProperty("sun.java.command");
+        if (launched == null || launched.isBlank()) {
+            throw new IllegalStateException("The command line of the running process is not available.");
+        }
+        var java = info.command().orElse(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        var module = System.getProperty("jdk.module.main");
+        var classPath = System.getProperty("java.class.path", "");
+        List<String> application;
+        String arguments;
+        if (module != null) {
+            var mainClass = System.getProperty("jdk.module.main.class");
+            application = List.of("-m", mainClass == null ? module : module + "/" + mainClass);
+            arguments = launched.indexOf(' ') < 0 ? "" : launched.substring(launched.indexOf(' '));
+        } else if (classPath.toLowerCase(Locale.ROOT).endsWith(".jar") && launched.startsWith(classPath)
+                && (launched.length() == classPath.length() || launched.charAt(classPath.length()) == ' ')) {
+            application = List.of("-jar", classPath);
+            arguments = launched.substring(classPath.length());
+        } else {
+            var end = launched.indexOf(' ');
+            application = List.of(end < 0 ? launched : launched.substring(0, end));
+            arguments = end < 0 ? "" : launched.substring(end);
+        }
+        if (!arguments.isBlank()) {
+            throw new IllegalStateException("The application arguments of the running process cannot be recovered from: " + launched);
+        }
+        return new JvmCommandLine(java, ManagementFactory.getRuntimeMXBean().getInputArguments(), application);
+    }
+
+    /**
+     * Split a command line.
+     * The argument files found before the application are expanded, unless disabled with --disable-@files.
+     *
+     * @param java      Java executable.
+     * @param arguments Arguments of the command line.
+     * @return The command line.
+     * @throws IllegalStateException If the arguments do not launch any application, or an argument file could not be read.
+     */
+    static JvmCommandLine parse(String java, List<String> arguments) {
+        List<String> options = new ArrayList<>();
+        Deque<String> pending = new ArrayDeque<>(arguments);
+        var expand = true;
+        while (!pending.isEmpty()) {
+            var argument = pending.removeFirst();
+            if (expand && argument.startsWith("@") && !argument.startsWith("@@")) {
+                readArgumentFile(Path.of(argument.substring(1))).reversed().forEach(pending::addFirst);
+                continue;
+            }
+            if (argument.equals("--disable-@files")) {
+                expand = false;
+            }
+            if (argument.equals("-jar") || argument.equals("-m") || argument.equals("--module")
+                    || argument.startsWith("--module=") || !argument.startsWith("-") && !(expand && argument.startsWith("@"))) {
+                List<String> application = new ArrayList<>();
+                application.add(argument);
+                application.addAll(pending);
+                return new JvmCommandLine(java, options, application);
+            }
+            options.add(argument);
+            if (OPTIONS_WITH_VALUE.contains(argument) && !pending.isEmpty()) {
+                options.add(pending.removeFirst());
+            }
+        }
+        throw new IllegalStateException("No application found in the command line: " + arguments);
+    }
+
+    /**
+     * Read the arguments of an argument file, as the java launcher does.
+     * Arguments are separated by white spaces, can be quoted with single or double quotes, and a # outside an argument
+     * starts a comment up to the end of the line. In quotes, a backslash escapes the next character, and a backslash at
+     * the end of a line continues the argument on the next line, without its leading white spaces.
+     *
+     * @param file Argument file.
+     * @return The arguments.
+     * @throws IllegalStateException If the file could not be read.
+     */
+    static List<String> readArgumentFile(Path file) {
+        String content;
+        try {
+            content = Files.readString(file);
+        } catch (IOException e) {
+            throw new IllegalStateException("The argument file " + file + " could not be read.", e);
+        }
+        List<String> result = new ArrayList<>();
+        StringBuilder argument = null;
+        var quote = '\0';
+        for (var i = 0; i < content.length(); i++) {
+            var c = content.charAt(i);
+            if (quote != '\0') {
+                if (c == quote) {
+                    quote = '\0';
+                } else if (c == '\n' || c == '\r') {
+                    quote = '\0';
+                    result.add(argument.toString());
+                    argument = null;
+                } else if (c == '\\' && i + 1 < content.length()) {
+                    i = unescape(content, i + 1, argument);
+                } else {
+                    argument.append(c);
+                }
+            } else if (Character.isWhitespace(c)) {
+                if (argument != null) {
+                    result.add(argument.toString());
+                    argument = null;
+                }
+            } else if (c == '#' && argument == null) {
+                while (i + 1 < content.length() && content.charAt(i + 1) != '\n' && content.charAt(i + 1) != '\r') {
+                    i++;
+                }
+            } else {
+                if (argument == null) {
+                    argument = new StringBuilder();
+                }
+                if (c == '"' || c == '\'') {
+                    quote = c;
+                } else {
+                    argument.append(c);
+                }
+            }
+        }
+        if (argument != null) {
+            result.add(argument.toString());
+        }
+        return result;
+    }
+
+    /**
+     * Append an escaped character of a quoted argument.
+     *
+     * @param content  Content of the argument file.
+     * @param index    Index of the escaped character, after the backslash.
+     * @param argument Argument being read.
+     * @return The index of the last character consumed.
+     */
+    private static int unescape(String content, int index, StringBuilder argument) {
+        var c = content.charAt(index);
+        switch (c) {
+            case 'n' -> argument.append('\n');
+            case 't' -> argument.append('\t');
+            case 'r' -> argument.append('\r');
+            case 'f' -> argument.append('\f');
+            case '\n', '\r' -> {
+                var i = index;
+                while (i + 1 < content.length() && Character.isWhitespace(content.charAt(i + 1))) {
+                    i++;
+                }
+                return i;
+            }
+            default -> argument.append(c);
+        }
+        return index;
+    }
+
+    /**
+     * Provide the launched jar.
+     *
+     * @return The jar, empty if the application is launched from a module or a main class.
+     */
+    Optional<Path> jar() {
+        return this.application.size() > 1 && this.application.getFirst().equals("-jar")
+                ? Optional.of(Path.of(this.application.get(1)))
+                : Optional.empty();
+    }
+
+    /**
+     * Add JVM options, after the existing ones so they take precedence.
+     *
+     * @param options JVM options to add.
+     * @return A new command line with the options.
+     */
+    JvmCommandLine withJvmOptions(List<String> options) {
+        List<String> result = new ArrayList<>(this.jvmOptions);
+        result.addAll(options);
+        return new JvmCommandLine(this.java, result, this.application);
+    }
+
+    /**
+     * Remove the JVM options starting with a prefix.
+     *
+     * @param prefix Prefix of the options to remove.
+     * @return A new command line without those options.
+     */
+    JvmCommandLine withoutJvmOptions(String prefix) {
+        return new JvmCommandLine(this.java, this.jvmOptions.stream().filter(o -> !o.startsWith(prefix)).toList(), this.application);
+    }
+
+    /**
+     * Provide the full command.
+     *
+     * @return The java executable, the JVM options and the application.
+     */
+    List<String> toCommand() {
+        List<String> result = new ArrayList<>();
+        result.add(this.java);
+        result.addAll(this.jvmOptions);
+        result.addAll(this.application);
+        return result;
+    }
+}
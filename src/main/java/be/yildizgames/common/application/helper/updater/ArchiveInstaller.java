@@ -0,0 +1,285 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.updater;
+
+import be.yildizgames.common.logging.Logger;
+import org.update4j.Archive;
+import org.update4j.FileMetadata;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Install an update archive with channel transfers.
+ * All the files are first written next to their target, synchronized to the disk in a single pass, then moved in place.
+ * Before the first move, every target is checked to be writable and not locked by another process, and a link to its
+ * current version is kept until all the moves are done. A failure at any step leaves the installed files in their
+ * previous version and the archive available for a new attempt.
+ *
+ * @author Grégory Van den Borre
+ */
+final class ArchiveInstaller {
+
+    /**
+     * Name of the directory containing the files in the archive.
+     */
+    private static final String FILES_DIRECTORY = "files";
+
+    /**
+     * Suffix of the files written before being moved in place.
+     */
+    private static final String STAGED_SUFFIX = ".update";
+
+    /**
+     * Suffix of the previous versions kept until all the files are moved.
+     */
+    private static final String BACKUP_SUFFIX = ".previous";
+
+    private ArchiveInstaller() {
+        super();
+    }
+
+    /**
+     * Install the files of an archive, and delete it.
+     * A file already downloaded uncompressed is copied from the download directory with a zero copy transfer,
+     * the others are transferred from the archive entries.
+     *
+     * @param archive           Archive to install.
+     * @param downloadDirectory Directory containing the downloaded files, null if none is available.
+     * @param location          Provide the location where to install a file, from its location in the manifest.
+     * @throws IOException If the archive could not be installed.
+     */
+    static void install(Path archive, Path downloadDirectory, UnaryOperator<Path> location) throws IOException {
+        var content = Archive.read(archive);
+        List<Staged> staged = new ArrayList<>();
+        try {
+            try (var zip = content.openConnection()) {
+                for (var file : content.getFiles()) {
+                    staged.add(stage(file, zip, downloadDirectory, location.apply(file.getPath())));
+                }
+            }
+            for (var s : staged) {
+                try (var channel = FileChannel.open(s.temp(), StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+            }
+            for (var s : staged) {
+                verifyAccessible(s.target());
+            }
+        } catch (IOException | RuntimeException e) {
+            for (var s : staged) {
+                Files.deleteIfExists(s.temp());
+            }
+            throw e;
+        }
+        replace(staged);
+        Files.deleteIfExists(archive);
+    }
+
+    /**
+     * Move the staged files in place, all of them or none.
+     * The previous version of each file is linked, or copied, before it is replaced, and restored if a later move fails.
+     *
+     * @param staged Staged files.
+     * @throws IOException If a file could not be moved, the files already moved are then restored.
+     */
+    private static void replace(List<Staged> staged) throws IOException {
+        List<Staged> moved = new ArrayList<>();
+        try {
+            for (var s : staged) {
+                if (Files.exists(s.target())) {
+                    backup(s.target(), s.backup());
+                }
+                move(s.temp(), s.target());
+                moved.add(s);
+            }
+        } catch (IOException | RuntimeException e) {
+            for (var s : moved.reversed()) {
+                restore(s, e);
+            }
+            for (var s : staged) {
+                Files.deleteIfExists(s.temp());
+                Files.deleteIfExists(s.backup());
+            }
+            throw e;
+        }
+        Set<Path> directories = new LinkedHashSet<>();
+        for (var s : staged) {
+            Files.deleteIfExists(s.backup());
+            directories.add(s.target().getParent());
+        }
+        directories.forEach(ArchiveInstaller::forceDirectory);
+    }
+
+    /**
+     * Check that a file can be replaced: it must be writable, and not locked by another process.
+     *
+     * @param target File to replace, it may not exist.
+     * @throws IOException If the file cannot be replaced.
+     */
+    private static void verifyAccessible(Path target) throws IOException {
+        if (Files.notExists(target)) {
+            return;
+        }
+        try (var channel = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+             var lock = channel.tryLock()) {
+            if (lock == null) {
+                throw new IOException(target + ": File is locked by another process.");
+            }
+        } catch (OverlappingFileLockException e) {
+            throw new IOException(target + ": File is locked.", e);
+        }
+    }
+
+    /**
+     * Keep the current version of a file, as a hard link when supported, as a copy otherwise.
+     *
+     * @param target File to keep.
+     * @param backup Location of the kept version.
+     * @throws IOException If the file could not be kept.
+     */
+    private static void backup(Path target, Path backup) throws IOException {
+        Files.deleteIfExists(backup);
+        try {
+            Files.createLink(backup, target);
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(target, backup, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+        }
+    }
+
+    /**
+     * Put back the previous version of a file already moved, a file that did not exist before is deleted.
+     *
+     * @param staged Moved file.
+     * @param cause  Failure that caused the restoration, restoration failures are added to it.
+     */
+    private static void restore(Staged staged, Exception cause) {
+        try {
+            if (Files.exists(staged.backup())) {
+                move(staged.backup(), staged.target());
+            } else {
+                Files.deleteIfExists(staged.target());
+            }
+        } catch (IOException | RuntimeException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Write a file next to its target.
+     *
+     * @param file              File to write.
+     * @param zip               Opened archive.
+     * @param downloadDirectory Directory containing the downloaded files, null if none is available.
+     * @param target            Location where to install the file.
+     * @return The written file.
+     * @throws IOException If the file could not be written.
+     */
+    private static Staged stage(FileMetadata file, FileSystem zip, Path downloadDirectory, Path target) throws IOException {
+        var entry = zip.getPath(FILES_DIRECTORY).resolve(file.getPath().normalize().toString().replaceFirst("^\\\\|/", ""));
+        if (!Files.isRegularFile(entry)) {
+            throw new IOException(file.getPath() + ": File is missing or invalid in " + zip);
+        }
+        Files.createDirectories(target.getParent());
+        var temp = target.resolveSibling(target.getFileName() + STAGED_SUFFIX);
+        var local = downloadDirectory == null ? null : downloadDirectory.resolve(FileDownloader.localName(file));
+        try (var out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (local != null && Files.isRegularFile(local) && Files.size(local) == file.getSize()) {
+                try (var in = FileChannel.open(local, StandardOpenOption.READ)) {
+                    transfer(in, out, in.size());
+                }
+            } else {
+                try (var in = Files.newByteChannel(entry)) {
+                    transfer(in, out, in.size());
+                }
+            }
+        }
+        return new Staged(temp, target, target.resolveSibling(target.getFileName() + BACKUP_SUFFIX));
+    }
+
+    /**
+     * Transfer all the bytes of a channel to a file.
+     *
+     * @param in   Channel to read.
+     * @param out  File to write.
+     * @param size Number of bytes to transfer.
+     * @throws IOException If the transfer failed or the source ended early.
+     */
+    private static void transfer(ReadableByteChannel in, FileChannel out, long size) throws IOException {
+        long position = 0;
+        while (position < size) {
+            long transferred = in instanceof FileChannel file
+                    ? file.transferTo(position, size - position, out)
+                    : out.transferFrom(in, position, size - position);
+            if (transferred <= 0) {
+                throw new IOException("Unexpected end of data after " + position + " bytes out of " + size + ".");
+            }
+            position += transferred;
+        }
+    }
+
+    /**
+     * Replace a file with its staged version.
+     *
+     * @param temp   Staged file.
+     * @param target File to replace.
+     * @throws IOException If the file could not be moved.
+     */
+    private static void move(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Synchronize a directory to the disk, to persist the moves made in it.
+     * Not all the systems support it, a failure is only logged.
+     *
+     * @param directory Directory to synchronize.
+     */
+    static void forceDirectory(Path directory) {
+        try (var channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            Logger.getLogger(ArchiveInstaller.class).debug("Directory {0} could not be synchronized: {1}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * A file written next to its target.
+     *
+     * @param temp   Written file.
+     * @param target File to replace.
+     * @param backup Location of the previous version while the files are moved.
+     */
+    private record Staged(Path temp, Path target, Path backup) {
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.updater;
+
+import be.yildizgames.common.logging.Logger;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Update listener delivering the events to another listener from a dedicated thread, a slow listener does not slow the download.
+ * Progress events are coalesced, only the latest percentage of each file and of the whole download is delivered,
+ * at most once per frame, and always before the events received after it.
+ * Other events are queued and delivered in order, a producer waits only when the queue is full.
+ * Closing the listener delivers the pending events before returning.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class AsyncUpdateDownloadListener implements UpdateDownloadListener, AutoCloseable {
+
+    /**
+     * Default number of progress deliveries per second.
+     */
+    private static final int DEFAULT_FRAME_RATE = 30;
+
+    /**
+     * Default maximum number of queued events.
+     */
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Event sent to stop the delivery thread.
+     */
+    private static final Consumer<UpdateDownloadListener> STOP = l -> {
+    };
+
+    /**
+     * Listener receiving the events.
+     */
+    private final UpdateDownloadListener delegate;
+
+    /**
+     * Minimum delay between two progress deliveries, in nanoseconds.
+     */
+    private final long frame;
+
+    /**
+     * Events waiting to be delivered, except the progress.
+     */
+    private final BlockingQueue<Event> events;
+
+    /**
+     * Latest percentage of each file, waiting to be delivered.
+     */
+    private final Map<Path, Progress> fileProgress = new ConcurrentHashMap<>();
+
+    /**
+     * Latest overall percentage waiting to be delivered, null if none.
+     */
+    private final AtomicReference<Progress> downloadProgress = new AtomicReference<>();
+
+    /**
+     * Order of the received events, a progress is delivered before the events received after it.
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Thread delivering the events.
+     */
+    private final Thread dispatcher;
+
+    /**
+     * Creates a new asynchronous listener delivering the progress 30 times per second.
+     *
+     * @param delegate Listener receiving the events.
+     */
+    public AsyncUpdateDownloadListener(UpdateDownloadListener delegate) {
+        this(delegate, DEFAULT_FRAME_RATE, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new asynchronous listener.
+     *
+     * @param delegate  Listener receiving the events.
+     * @param frameRate Maximum number of progress deliveries per second.
+     * @param capacity  Maximum number of queued events, progress events excluded.
+     */
+    public AsyncUpdateDownloadListener(UpdateDownloadListener delegate, int frameRate, int capacity) {
+        super();
+        if (frameRate <= 0) {
+            throw new IllegalArgumentException("Frame rate must be positive.");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+        this.delegate = Objects.requireNonNull(delegate);
+        this.frame = TimeUnit.SECONDS.toNanos(1) / frameRate;
+        this.events = new ArrayBlockingQueue<>(capacity);
+        this.dispatcher = Thread.ofVirtual().name("update-listener").start(this::dispatch);
+    }
+
+    @Override
+    public void fileUpToDate() {
+        this.enqueue(UpdateDownloadListener::fileUpToDate);
+    }
+
+    @Override
+    public void fileUpdated(Path file, int percent) {
+        this.fileProgress.put(file, new Progress(percent, this.sequence.incrementAndGet()));
+    }
+
+    @Override
+    public void fileCompletedSuccessfully(Path file) {
+        this.enqueue(l -> l.fileCompletedSuccessfully(file));
+    }
+
+    @Override
+    public void downloadCompletedSuccessfully() {
+        this.enqueue(UpdateDownloadListener::downloadCompletedSuccessfully);
+    }
+
+    @Override
+    public void downloadUpdated(int percent) {
+        this.downloadProgress.set(new Progress(percent, this.sequence.incrementAndGet()));
+    }
+
+    @Override
+    public void startDownloads() {
+        this.enqueue(UpdateDownloadListener::startDownloads);
+    }
+
+    @Override
+    public void completed() {
+        this.enqueue(UpdateDownloadListener::completed);
+    }
+
+    @Override
+    public void startDownloadFile(Path file) {
+        this.enqueue(l -> l.startDownloadFile(file));
+    }
+
+    @Override
+    public void downloadFailure(Throwable t) {
+        this.enqueue(l -> l.downloadFailure(t));
+    }
+
+    /**
+     * Deliver the pending events and stop the delivery thread.
+     * Events received after closing are not delivered.
+     */
+    @Override
+    public void close() {
+        if (!this.dispatcher.isAlive()) {
+            return;
+        }
+        this.enqueue(STOP);
+        try {
+            this.dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Queue an event, waiting if the queue is full.
+     *
+     * @param event Event to deliver.
+     */
+    private void enqueue(Consumer<UpdateDownloadListener> event) {
+        if (!this.dispatcher.isAlive()) {
+            return;
+        }
+        try {
+            this.events.put(new Event(event, this.sequence.incrementAndGet()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Deliver the events until the listener is closed.
+     */
+    private void dispatch() {
+        var nextFrame = System.nanoTime() + this.frame;
+        while (true) {
+            Event event;
+            try {
+                event = this.events.poll(Math.max(0, nextFrame - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (event != null) {
+                this.flushProgress(event.sequence());
+                if (event.action() == STOP) {
+                    return;
+                }
+                this.deliver(event.action());
+            }
+            var now = System.nanoTime();
+            if (now >= nextFrame) {
+                this.flushProgress(Long.MAX_VALUE);
+                nextFrame = now + this.frame;
+            }
+        }
+    }
+
+    /**
+     * Deliver the latest progress of each file and of the whole download, received before a given event.
+     *
+     * @param before Sequence of the event, only the progress received before is delivered.
+     */
+    private void flushProgress(long before) {
+        for (var entry : this.fileProgress.entrySet()) {
+            var progress = entry.getValue();
+            if (progress.sequence() < before && this.fileProgress.remove(entry.getKey(), progress)) {
+                this.deliver(l -> l.fileUpdated(entry.getKey(), progress.percent()));
+            }
+        }
+        var progress = this.downloadProgress.get();
+        if (progress != null && progress.sequence() < before && this.downloadProgress.compareAndSet(progress, null)) {
+            this.deliver(l -> l.downloadUpdated(progress.percent()));
+        }
+    }
+
+    /**
+     * Deliver an event, a failing listener does not stop the delivery of the next events.
+     *
+     * @param event Event to deliver.
+     */
+    private void deliver(Consumer<UpdateDownloadListener> event) {
+        try {
+            event.accept(this.delegate);
+        } catch (RuntimeException e) {
+            Logger.getLogger(this).warning("Update listener failed: {0}", e.getMessage());
+        }
+    }
+
+    /**
+     * A queued event.
+     *
+     * @param action   Call to make on the listener.
+     * @param sequence Order of the event.
+     */
+    private record Event(Consumer<UpdateDownloadListener> action, long sequence) {
+    }
+
+    /**
+     * A percentage waiting to be delivered.
+     *
+     * @param percent  Percentage.
+     * @param sequence Order of the progress.
+     */
+    private record Progress(int percent, long sequence) {
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.updater;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Token bucket limiting the download rate, shared by all the download threads.
+ * In adaptive mode, the rate is lowered while the foreground load is high, down to a tenth of the maximum rate.
+ *
+ * @author Grégory Van den Borre
+ */
+final class BandwidthLimiter {
+
+    /**
+     * Minimum fraction of the maximum rate kept when the foreground load is at its maximum.
+     */
+    private static final double MIN_RATE_FRACTION = 0.1;
+
+    /**
+     * Maximum rate in bytes per second.
+     */
+    private final long bytesPerSecond;
+
+    /**
+     * Foreground load, between 0 (idle) and 1 (saturated).
+     */
+    private final DoubleSupplier foregroundLoad;
+
+    /**
+     * Available bytes, negative when bytes are reserved in advance.
+     */
+    private double tokens;
+
+    /**
+     * Last time the tokens were refilled, in nanoseconds.
+     */
+    private long lastRefill = System.nanoTime();
+
+    /**
+     * Create a new limiter, the bucket holds one second of traffic and starts full.
+     *
+     * @param bytesPerSecond Maximum rate in bytes per second.
+     * @param foregroundLoad Foreground load, between 0 (idle) and 1 (saturated).
+     */
+    BandwidthLimiter(long bytesPerSecond, DoubleSupplier foregroundLoad) {
+        super();
+        if (bytesPerSecond <= 0) {
+            throw new IllegalArgumentException("Bandwidth limit must be positive.");
+        }
+        this.bytesPerSecond = bytesPerSecond;
+        this.foregroundLoad = foregroundLoad;
+        this.tokens = bytesPerSecond;
+    }
+
+    /**
+     * Wait until bytes can be transferred without exceeding the rate.
+     *
+     * @param bytes Number of bytes to transfer.
+     * @throws InterruptedIOException If the thread is interrupted while waiting.
+     */
+    void acquire(long bytes) throws InterruptedIOException {
+        long wait;
+        synchronized (this) {
+            var rate = this.currentRate();
+            var now = System.nanoTime();
+            this.tokens = Math.min(rate, this.tokens + (now - this.lastRefill) * rate / TimeUnit.SECONDS.toNanos(1));
+            this.lastRefill = now;
+            this.tokens -= bytes;
+            wait = this.tokens >= 0 ? 0 : (long) (-this.tokens * TimeUnit.SECONDS.toNanos(1) / rate);
+        }
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Download interrupted.");
+            }
+        }
+    }
+
+    /**
+     * Compute the rate for the current foreground load.
+     *
+     * @return The rate in bytes per second.
+     */
+    private double currentRate() {
+        var load = Math.clamp(this.foregroundLoad.getAsDouble(), 0.0, 1.0);
+        return this.bytesPerSecond * Math.max(MIN_RATE_FRACTION, 1.0 - load);
+    }
+}
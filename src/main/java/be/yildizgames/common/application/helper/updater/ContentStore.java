@@ -0,0 +1,149 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.updater;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Local store of downloaded files, addressed by their content, to never download the same file twice.
+ * The store can be shared by several applications on the same host, its size is bounded, the least recently used
+ * files are evicted first.
+ *
+ * @author Grégory Van den Borre
+ */
+final class ContentStore {
+
+    /**
+     * Directory containing the stored files.
+     */
+    private final Path directory;
+
+    /**
+     * Maximum size of the store, in bytes.
+     */
+    private final long maxSize;
+
+    /**
+     * Creates a new store.
+     *
+     * @param directory Directory containing the stored files.
+     * @param maxSize   Maximum size of the store, in bytes.
+     */
+    ContentStore(Path directory, long maxSize) {
+        super();
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Store size cannot be negative.");
+        }
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Provide a stored file in the target location, hard linked if possible, copied otherwise.
+     *
+     * @param key    Content key of the file.
+     * @param target Location where to provide the file.
+     * @return true if the file was in the store and is now present in the target location.
+     */
+    boolean copyTo(String key, Path target) {
+        var stored = this.directory.resolve(key);
+        try {
+            Files.setLastModifiedTime(stored, FileTime.fromMillis(System.currentTimeMillis()));
+            Files.deleteIfExists(target);
+            try {
+                Files.createLink(target, stored);
+            } catch (IOException | UnsupportedOperationException e) {
+                Files.copy(stored, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Add a file to the store, the file name is used as content key, and evict the least recently used files if the store is too big.
+     *
+     * @param file File to store.
+     * @throws IOException If the file could not be stored.
+     */
+    void store(Path file) throws IOException {
+        Files.createDirectories(this.directory);
+        var stored = this.directory.resolve(file.getFileName().toString());
+        if (Files.exists(stored)) {
+            Files.setLastModifiedTime(stored, FileTime.fromMillis(System.currentTimeMillis()));
+        } else {
+            var temp = Files.createTempFile(this.directory, "store", ".tmp");
+            try {
+                Files.copy(file, temp, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temp, stored, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Stored by another application in the meantime.
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        this.evict();
+    }
+
+    /**
+     * Delete the least recently used files until the store is not bigger than its maximum size.
+     *
+     * @throws IOException If the store content could not be read.
+     */
+    synchronized void evict() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        long total = 0;
+        try (var content = Files.list(this.directory)) {
+            for (var path : content.filter(p -> !p.getFileName().toString().endsWith(".tmp")).toList()) {
+                try {
+                    var entry = new Entry(path, Files.size(path), Files.getLastModifiedTime(path));
+                    entries.add(entry);
+                    total += entry.size;
+                } catch (NoSuchFileException e) {
+                    // Evicted by another application in the meantime.
+                }
+            }
+        }
+        entries.sort(Comparator.comparing(Entry::lastUsed));
+        for (var entry : entries) {
+            if (total <= this.maxSize) {
+                return;
+            }
+            Files.deleteIfExists(entry.path);
+            total -= entry.size;
+        }
+    }
+
+    /**
+     * A stored file.
+     *
+     * @param path     Stored file.
+     * @param size     File size.
+     * @param lastUsed Last time the file was stored or used.
+     */
+    private record Entry(Path path, long size, FileTime lastUsed) {
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.updater;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Binary delta between two versions of a file, to update a file by only downloading what changed.
+ * A patch is a GZIP stream containing a header and a list of instructions rebuilding the new file:
+ * <ul>
+ * <li>header: magic number 'YDP1' (int), size of the new file (long).</li>
+ * <li>COPY: 0 (byte), offset in the old file (long), length (int), copy bytes from the old file.</li>
+ * <li>ADD: 1 (byte), length (int), bytes, append the given bytes.</li>
+ * <li>END: 2 (byte).</li>
+ * </ul>
+ *
+ * @author Grégory Van den Borre
+ */
+public final class DeltaPatch {
+
+    /**
+     * Patch format magic number.
+     */
+    private static final int MAGIC = 0x59445031;
+
+    private static final byte COPY = 0;
+
+    private static final byte ADD = 1;
+
+    private static final byte END = 2;
+
+    /**
+     * Size of the blocks matched between the old and new file when creating a patch.
+     */
+    private static final int BLOCK_SIZE = 32;
+
+    /**
+     * Base of the rolling hash used to find the matching blocks.
+     */
+    private static final int HASH_BASE = 31;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private DeltaPatch() {
+        super();
+    }
+
+    /**
+     * Create a patch from an old version of a file to a new one.
+     *
+     * @param source Old version of the file.
+     * @param target New version of the file.
+     * @param patch  Stream receiving the patch, not closed.
+     * @throws IOException If a file could not be read or the patch written.
+     */
+    public static void create(Path source, Path target, OutputStream patch) throws IOException {
+        var from = Files.readAllBytes(source);
+        var to = Files.readAllBytes(target);
+        var gzip = new GZIPOutputStream(patch);
+        var out = new DataOutputStream(new BufferedOutputStream(gzip));
+        out.writeInt(MAGIC);
+        out.writeLong(to.length);
+        Map<Integer, Integer> blocks = new HashMap<>();
+        for (int i = 0; i + BLOCK_SIZE <= from.length; i += BLOCK_SIZE) {
+            blocks.putIfAbsent(hash(from, i), i);
+        }
+        int power = 1;
+        for (int i = 1; i < BLOCK_SIZE; i++) {
+            power *= HASH_BASE;
+        }
+        int pending = 0;
+        int position = 0;
+        int hash = to.length >= BLOCK_SIZE ? hash(to, 0) : 0;
+        while (position + BLOCK_SIZE <= to.length) {
+            var candidate = blocks.get(hash);
+            if (candidate != null && matches(from, candidate, to, position)) {
+                int length = BLOCK_SIZE;
+                while (candidate + length < from.length && position + length < to.length && from[candidate + length] == to[position + length]) {
+                    length++;
+                }
+                writeAdd(out, to, pending, position - pending);
+                out.writeByte(COPY);
+                out.writeLong(candidate);
+                out.writeInt(length);
+                position += length;
+                pending = position;
+                if (position + BLOCK_SIZE <= to.length) {
+                    hash = hash(to, position);
+                }
+            } else {
+                if (position + BLOCK_SIZE < to.length) {
+                    hash = (hash - to[position] * power) * HASH_BASE + to[position + BLOCK_SIZE];
+                }
+                position++;
+            }
+        }
+        writeAdd(out, to, pending, to.length - pending);
+        out.writeByte(END);
+        out.flush();
+        gzip.finish();
+    }
+
+    /**
+     * Apply a patch to an old version of a file to build the new one.
+     *
+     * @param source Old version of the file.
+     * @param patch  Patch to apply, not closed.
+     * @param target New version of the file to write.
+     * @throws IOException If the patch is invalid or a file could not be read or written.
+     */
+    public static void apply(Path source, InputStream patch, Path target) throws IOException {
+        var in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(patch)));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Invalid patch format.");
+        }
+        var expectedSize = in.readLong();
+        long written = 0;
+        try (var from = FileChannel.open(source, StandardOpenOption.READ);
+             var out = new BufferedOutputStream(Files.newOutputStream(target))) {
+            var buffer = new byte[64 * 1024];
+            byte op;
+            while ((op = in.readByte()) != END) {
+                if (op == COPY) {
+                    var offset = in.readLong();
+                    var length = in.readInt();
+                    if (offset < 0 || length < 0 || offset + length > from.size()) {
+                        throw new IOException("Invalid patch copy instruction.");
+                    }
+                    checkSize(written, length, expectedSize);
+                    copy(from, offset, length, out, buffer);
+                    written += length;
+                } else if (op == ADD) {
+                    var length = in.readInt();
+                    if (length < 0) {
+                        throw new IOException("Invalid patch add instruction.");
+                    }
+                    checkSize(written, length, expectedSize);
+                    int remaining = length;
+                    while (remaining > 0) {
+                        var read = in.read(buffer, 0, Math.min(buffer.length, remaining));
+                        if (read < 0) {
+                            throw new IOException("Truncated patch.");
+                        }
+                        out.write(buffer, 0, read);
+                        remaining -= read;
+                    }
+                    written += length;
+                } else {
+                    throw new IOException("Invalid patch instruction: " + op);
+                }
+            }
+        }
+        if (written != expectedSize) {
+            throw new IOException("Patch result size " + written + " does not match expected size " + expectedSize);
+        }
+    }
+
+    /**
+     * Reject an instruction before it is applied if it would make the result bigger than expected.
+     *
+     * @param written      Number of bytes already written.
+     * @param length       Number of bytes the instruction writes.
+     * @param expectedSize Expected size of the result.
+     * @throws IOException If the instruction exceeds the expected size.
+     */
+    private static void checkSize(long written, int length, long expectedSize) throws IOException {
+        if (written + length > expectedSize) {
+            throw new IOException("Patch result is bigger than expected.");
+        }
+    }
+
+    /**
+     * Copy a range of the old file to the new one.
+     *
+     * @param from   Old file.
+     * @param offset First byte to copy.
+     * @param length Number of bytes to copy.
+     * @param out    New file.
+     * @param buffer Buffer to use for the copy.
+     * @throws IOException If the old file could not be read or the new one written.
+     */
+    private static void copy(FileChannel from, long offset, int length, OutputStream out, byte[] buffer) throws IOException {
+        var position = offset;
+        var end = offset + length;
+        var wrapper = ByteBuffer.wrap(buffer);
+        while (position < end) {
+            wrapper.clear().limit((int) Math.min(buffer.length, end - position));
+            var read = from.read(wrapper, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of source file.");
+            }
+            out.write(buffer, 0, read);
+            position += read;
+        }
+    }
+
+    /**
+     * Write an ADD instruction, nothing is written for an empty range.
+     *
+     * @param out    Patch output.
+     * @param data   New file content.
+     * @param offset First byte to add.
+     * @param length Number of bytes to add.
+     * @throws IOException If the patch could not be written.
+     */
+    private static void writeAdd(DataOutputStream out, byte[] data, int offset, int length) throws IOException {
+        if (length > 0) {
+            out.writeByte(ADD);
+            out.writeInt(length);
+            out.write(data, offset, length);
+        }
+    }
+
+    /**
+     * Compute the hash of a block.
+     *
+     * @param data   Content containing the block.
+     * @param offset First byte of the block.
+     * @return The block hash.
+     */
+    private static int hash(byte[] data, int offset) {
+        int hash = 0;
+        for (int i = offset; i < offset + BLOCK_SIZE; i++) {
+            hash = hash * HASH_BASE + data[i];
+        }
+        return hash;
+    }
+
+    /**
+     * Check if a block of the old file is equal to a block of the new file.
+     *
+     * @param from       Old file content.
+     * @param fromOffset First byte of the old file block.
+     * @param to         New file content.
+     * @param toOffset   First byte of the new file block.
+     * @return true if both blocks are equal.
+     */
+    private static boolean matches(byte[] from, int fromOffset, byte[] to, int toOffset) {
+        return Arrays.equals(from, fromOffset, fromOffset + BLOCK_SIZE, to, toOffset, toOffset + BLOCK_SIZE);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.updater;
+
+import org.update4j.Configuration;
+import org.update4j.FileMetadata;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.Adler32;
+
+/**
+ * Find the binary patches advertised in an update manifest.
+ * A patch is advertised with a manifest property named 'patch.[new checksum].[installed checksum]', checksums are the
+ * update4j hexadecimal checksums, and the value is the patch uri, relative to the manifest base uri or absolute.
+ *
+ * @author Grégory Van den Borre
+ */
+final class DeltaResolver {
+
+    /**
+     * Prefix of the manifest properties advertising a patch.
+     */
+    static final String PATCH_PROPERTY_PREFIX = "patch.";
+
+    /**
+     * Manifest properties.
+     */
+    private final Map<String, String> properties;
+
+    /**
+     * Manifest base uri, null if none is set.
+     */
+    private final URI base;
+
+    /**
+     * Create a new resolver for a manifest.
+     *
+     * @param configuration Update manifest.
+     */
+    DeltaResolver(Configuration configuration) {
+        super();
+        this.properties = configuration.getResolvedProperties();
+        this.base = configuration.getBaseUri();
+    }
+
+    /**
+     * Find the patch building a file from its installed version.
+     *
+     * @param file File to update.
+     * @return The patch uri, empty if the file is not installed or no patch exists for the installed version.
+     * @throws IOException If the installed file could not be read.
+     */
+    Optional<URI> find(FileMetadata file) throws IOException {
+        var prefix = PATCH_PROPERTY_PREFIX + Long.toHexString(file.getChecksum()) + ".";
+        if (this.properties.keySet().stream().noneMatch(k -> k.startsWith(prefix)) || Files.notExists(file.getPath())) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(this.properties.get(prefix + Long.toHexString(checksum(file.getPath()))))
+                .map(v -> this.base == null ? URI.create(v) : this.base.resolve(v));
+    }
+
+    /**
+     * Compute the checksum of a file, with the same algorithm as update4j.
+     *
+     * @param file File to read.
+     * @return The file checksum.
+     * @throws IOException If the file could not be read.
+     */
+    static long checksum(Path file) throws IOException {
+        var checksum = new Adler32();
+        try (var in = Files.newInputStream(file)) {
+            var buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                checksum.update(buffer, 0, read);
+            }
+        }
+        return checksum.getValue();
+    }
+}
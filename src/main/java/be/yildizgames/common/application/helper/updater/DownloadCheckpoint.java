@@ -0,0 +1,77 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.updater;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * State of a partially downloaded file, stored next to it to resume the download later.
+ *
+ * @param uri       Remote file uri.
+ * @param validator Entity tag or last modified date sent by the server, empty if none was sent.
+ * @author Grégory Van den Borre
+ */
+record DownloadCheckpoint(URI uri, String validator) {
+
+    private static final String URI_KEY = "uri";
+
+    private static final String VALIDATOR_KEY = "validator";
+
+    /**
+     * Read a checkpoint file.
+     *
+     * @param path Checkpoint file.
+     * @return The checkpoint, empty if the file does not exist or is not readable.
+     */
+    static Optional<DownloadCheckpoint> read(Path path) {
+        if (Files.notExists(path)) {
+            return Optional.empty();
+        }
+        var properties = new Properties();
+        try (var reader = Files.newBufferedReader(path)) {
+            properties.load(reader);
+            var uri = properties.getProperty(URI_KEY);
+            return uri == null
+                    ? Optional.empty()
+                    : Optional.of(new DownloadCheckpoint(URI.create(uri), properties.getProperty(VALIDATOR_KEY, "")));
+        } catch (IOException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Write this checkpoint, the file is replaced atomically.
+     *
+     * @param path Checkpoint file.
+     * @throws IOException If the file could not be written.
+     */
+    void write(Path path) throws IOException {
+        var properties = new Properties();
+        properties.setProperty(URI_KEY, this.uri.toString());
+        properties.setProperty(VALIDATOR_KEY, this.validator);
+        var temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (var writer = Files.newBufferedWriter(temp)) {
+            properties.store(writer, null);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
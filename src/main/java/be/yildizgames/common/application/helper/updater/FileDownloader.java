@@ -0,0 +1,393 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.updater;
+
+import be.yildizgames.common.logging.Logger;
+import org.update4j.FileMetadata;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * Download the files of an update manifest to a local directory.
+ *
+ * @author Grégory Van den Borre
+ */
+final class FileDownloader {
+
+    /**
+     * Size of the buffer used to copy the downloaded bytes.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Shared http client.
+     */
+    private final HttpClient client;
+
+    /**
+     * Local store checked before downloading a file, null if none is used.
+     */
+    private final ContentStore store;
+
+    /**
+     * Resolver of the patches to download instead of the full files, null if patches are not used.
+     */
+    private final DeltaResolver deltas;
+
+    /**
+     * Checksum verified on the received bytes.
+     */
+    private final StreamingChecksum checksum;
+
+    /**
+     * Limiter of the download rate, null for no limit.
+     */
+    private final BandwidthLimiter limiter;
+
+    /**
+     * Mirrors the files can be downloaded from, null to only use the manifest uris.
+     */
+    private final MirrorSet mirrors;
+
+    /**
+     * Creates a new downloader.
+     *
+     * @param client   Shared http client to use.
+     * @param store    Local store checked before downloading a file, null if none is used.
+     * @param deltas   Resolver of the patches to download instead of the full files, null if patches are not used.
+     * @param checksum Checksum verified on the received bytes.
+     * @param limiter  Limiter of the download rate, null for no limit.
+     * @param mirrors  Mirrors the files can be downloaded from, null to only use the manifest uris.
+     */
+    FileDownloader(HttpClient client, ContentStore store, DeltaResolver deltas, StreamingChecksum checksum, BandwidthLimiter limiter, MirrorSet mirrors) {
+        super();
+        this.client = client;
+        this.store = store;
+        this.deltas = deltas;
+        this.checksum = checksum;
+        this.limiter = limiter;
+        this.mirrors = mirrors;
+    }
+
+    /**
+     * Provide the name of the local copy of a file, based on its content.
+     *
+     * @param file File to download.
+     * @return The local file name.
+     */
+    static String localName(FileMetadata file) {
+        return Long.toHexString(file.getChecksum()) + "-" + file.getSize();
+    }
+
+    /**
+     * Download a file.
+     * The file is taken from the local store if it contains it, or built from the installed version if a patch is advertised for it.
+     * A partially downloaded file is kept in the directory with a checkpoint, next calls only request the missing bytes
+     * with an HTTP range request, the server sends the whole file again if it changed since.
+     * The received bytes are verified while they arrive, the download is aborted as soon as the file is bigger than expected,
+     * and the partial file is discarded if its checksum does not match.
+     * With mirrors, a failing transfer continues on the next mirror from the bytes already received.
+     *
+     * @param file      File to download.
+     * @param directory Directory where the file is downloaded.
+     * @param timeout   Request timeout, null for no timeout.
+     * @param progress  Called with the number of bytes received each time a chunk is written, bytes already present from a
+     *                  previous attempt are reported first.
+     * @return The downloaded file.
+     * @throws IOException If the download failed on every mirror.
+     */
+    Path download(FileMetadata file, Path directory, Duration timeout, LongConsumer progress) throws IOException {
+        var name = localName(file);
+        var target = directory.resolve(name);
+        if ((Files.exists(target) && Files.size(target) == file.getSize())
+                || (this.store != null && this.store.copyTo(name, target))) {
+            progress.accept(file.getSize());
+            return target;
+        }
+        if (this.deltas != null && this.patch(file, directory, timeout)) {
+            progress.accept(file.getSize());
+            return target;
+        }
+        var candidates = this.mirrors == null ? List.of(file.getUri()) : this.mirrors.candidates(file.getUri());
+        var reported = new long[1];
+        LongConsumer position = p -> {
+            if (p > reported[0]) {
+                progress.accept(p - reported[0]);
+                reported[0] = p;
+            }
+        };
+        IOException failure = null;
+        for (var uri : candidates) {
+            try {
+                return this.fetch(file, uri, directory, timeout, position);
+            } catch (InterruptedIOException e) {
+                throw e;
+            } catch (IOException e) {
+                failure = e;
+                if (candidates.size() > 1) {
+                    this.mirrors.failed(uri);
+                }
+            }
+        }
+        throw failure;
+    }
+
+    /**
+     * Download a file from an uri, resuming a previous attempt.
+     * A partial file received from another mirror is resumed only if its checksum can be verified.
+     *
+     * @param file      File to download.
+     * @param uri       Uri to download the file from.
+     * @param directory Directory where the file is downloaded.
+     * @param timeout   Request timeout, null for no timeout.
+     * @param position  Called with the number of bytes of the file received so far.
+     * @return The downloaded file.
+     * @throws IOException If the download failed.
+     */
+    private Path fetch(FileMetadata file, URI uri, Path directory, Duration timeout, LongConsumer position) throws IOException {
+        var name = localName(file);
+        var part = directory.resolve(name + ".part");
+        var checkpointFile = directory.resolve(name + ".checkpoint");
+        var checkpoint = DownloadCheckpoint.read(checkpointFile).orElse(null);
+        var verification = this.checksum.start(file);
+        var sameSource = checkpoint != null && checkpoint.uri().equals(uri);
+        long offset = checkpoint != null && (sameSource || verification.isPresent()) && Files.exists(part) ? Files.size(part) : 0;
+        if (offset >= file.getSize()) {
+            offset = 0;
+        }
+        var request = HttpRequest.newBuilder(uri).GET();
+        if (timeout != null) {
+            request.timeout(timeout);
+        }
+        if (offset > 0) {
+            request.header("Range", "bytes=" + offset + "-");
+            if (sameSource && !checkpoint.validator().isEmpty()) {
+                request.header("If-Range", checkpoint.validator());
+            }
+        }
+        var start = System.nanoTime();
+        HttpResponse<InputStream> response;
+        try {
+            response = this.client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Download interrupted: " + uri);
+        }
+        try (var in = this.limit(response.body())) {
+            if (response.statusCode() == 206 && offset > 0 && isRangeStart(response, offset)) {
+                if (verification.isPresent()) {
+                    readExisting(part, offset, verification.get());
+                }
+                if (!sameSource) {
+                    new DownloadCheckpoint(uri, validator(response)).write(checkpointFile);
+                }
+                position.accept(offset);
+            } else if (response.statusCode() == 200) {
+                offset = 0;
+                new DownloadCheckpoint(uri, validator(response)).write(checkpointFile);
+            } else {
+                discard(part, checkpointFile);
+                throw new IOException("Unexpected status " + response.statusCode() + " for " + uri);
+            }
+            var options = offset > 0
+                    ? new StandardOpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND}
+                    : new StandardOpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING};
+            var received = offset;
+            try (var out = Files.newOutputStream(part, options)) {
+                var buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    received += read;
+                    if (received > file.getSize()) {
+                        discard(part, checkpointFile);
+                        throw new IOException("Received more bytes than expected for " + uri);
+                    }
+                    out.write(buffer, 0, read);
+                    var chunk = read;
+                    verification.ifPresent(v -> v.update(buffer, 0, chunk));
+                    position.accept(received);
+                }
+            } finally {
+                if (this.mirrors != null) {
+                    this.mirrors.transferred(uri, received - offset, System.nanoTime() - start);
+                }
+            }
+            if (received < file.getSize()) {
+                throw new IOException("Incomplete download for " + uri + ", it will be resumed on the next attempt.");
+            }
+            if (verification.isPresent() && !verification.get().matches()) {
+                discard(part, checkpointFile);
+                throw new IOException("Checksum mismatch for " + uri);
+            }
+        }
+        var result = Files.move(part, directory.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+        Files.deleteIfExists(checkpointFile);
+        return result;
+    }
+
+    /**
+     * Build a file by applying a patch to its installed version.
+     *
+     * @param file      File to build.
+     * @param directory Directory where the file is built.
+     * @param timeout   Request timeout, null for no timeout.
+     * @return true if the file was built, false if no patch exists or it could not be applied.
+     */
+    private boolean patch(FileMetadata file, Path directory, Duration timeout) {
+        var name = localName(file);
+        var temp = directory.resolve(name + ".delta");
+        try {
+            var uri = this.deltas.find(file);
+            if (uri.isEmpty()) {
+                return false;
+            }
+            var request = HttpRequest.newBuilder(uri.get()).GET();
+            if (timeout != null) {
+                request.timeout(timeout);
+            }
+            var response = this.client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+            try (var in = this.limit(response.body())) {
+                if (response.statusCode() != 200) {
+                    return false;
+                }
+                DeltaPatch.apply(file.getPath(), in, temp);
+            }
+            if (Files.size(temp) != file.getSize() || DeltaResolver.checksum(temp) != file.getChecksum()) {
+                Logger.getLogger(this).warning("Patch result does not match {0}, downloading the full file.", file.getPath());
+                return false;
+            }
+            Files.move(temp, directory.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (IOException e) {
+            Logger.getLogger(this).warning("Patch for {0} could not be applied, downloading the full file: {1}", file.getPath(), e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                Logger.getLogger(this).warning("Temporary patch file {0} could not be deleted.", temp);
+            }
+        }
+    }
+
+    /**
+     * Apply the rate limit to a downloaded stream.
+     *
+     * @param in Downloaded stream.
+     * @return The stream limited by the bandwidth limiter, or the stream itself if there is no limit.
+     */
+    private InputStream limit(InputStream in) {
+        if (this.limiter == null) {
+            return in;
+        }
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                var result = super.read();
+                if (result != -1) {
+                    FileDownloader.this.limiter.acquire(1);
+                }
+                return result;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                var result = super.read(b, off, len);
+                if (result > 0) {
+                    FileDownloader.this.limiter.acquire(result);
+                }
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Add the bytes downloaded by a previous attempt to a verification.
+     *
+     * @param part         Partially downloaded file.
+     * @param length       Number of bytes to read.
+     * @param verification Verification to update.
+     * @throws IOException If the file could not be read.
+     */
+    private static void readExisting(Path part, long length, StreamingChecksum.Verification verification) throws IOException {
+        try (var in = Files.newInputStream(part)) {
+            var buffer = new byte[BUFFER_SIZE];
+            long remaining = length;
+            int read;
+            while (remaining > 0 && (read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining))) != -1) {
+                verification.update(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+    }
+
+    /**
+     * Delete a partially downloaded file and its checkpoint.
+     *
+     * @param part       Partially downloaded file.
+     * @param checkpoint Checkpoint file.
+     * @throws IOException If a file could not be deleted.
+     */
+    private static void discard(Path part, Path checkpoint) throws IOException {
+        Files.deleteIfExists(part);
+        Files.deleteIfExists(checkpoint);
+    }
+
+    /**
+     * Check that a partial response starts at the expected offset.
+     *
+     * @param response Partial response.
+     * @param offset   Expected first byte.
+     * @return true if the content range starts at the offset.
+     */
+    private static boolean isRangeStart(HttpResponse<?> response, long offset) {
+        return response.headers()
+                .firstValue("Content-Range")
+                .map(r -> r.startsWith("bytes " + offset + "-"))
+                .orElse(false);
+    }
+
+    /**
+     * Provide the value identifying the version of the downloaded content.
+     *
+     * @param response Server response.
+     * @return The strong entity tag, or the last modified date, or an empty string.
+     */
+    private static String validator(HttpResponse<?> response) {
+        return response.headers()
+                .firstValue("ETag")
+                .filter(e -> !e.startsWith("W/"))
+                .or(() -> response.headers().firstValue("Last-Modified"))
+                .orElse("");
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.updater;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+
+/**
+ * Two installation slots, the application runs from the active one while an update is installed in the other.
+ * The active slot is the name written in a marker file in the root directory, replaced atomically to switch slot.
+ * An update is activated on the next start, and the previous version is kept to roll back instantly.
+ * The launcher starts the application from the directory named by the marker, "a" if the marker does not exist.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class InstallSlots {
+
+    /**
+     * Name of the first slot.
+     */
+    public static final String SLOT_A = "a";
+
+    /**
+     * Name of the second slot.
+     */
+    public static final String SLOT_B = "b";
+
+    /**
+     * Name of the marker file containing the active slot name.
+     */
+    public static final String MARKER = "active";
+
+    /**
+     * Directory containing the slots and the marker.
+     */
+    private final Path root;
+
+    /**
+     * Slot the running application was started from.
+     */
+    private final String current;
+
+    /**
+     * Creates the slots, the running application is considered started from the slot currently active.
+     *
+     * @param root Directory containing the slots and the marker.
+     */
+    public InstallSlots(Path root) {
+        super();
+        this.root = root.toAbsolutePath().normalize();
+        this.current = this.activeName();
+    }
+
+    /**
+     * Provide the directory the launcher starts the application from.
+     *
+     * @param root Directory containing the slots and the marker.
+     * @return The active slot directory.
+     */
+    public static Path active(Path root) {
+        return new InstallSlots(root).active();
+    }
+
+    /**
+     * Provide the slot the next start uses.
+     *
+     * @return The active slot directory.
+     */
+    public Path active() {
+        return this.root.resolve(this.activeName());
+    }
+
+    /**
+     * Provide the slot the running application was started from.
+     *
+     * @return The current slot directory.
+     */
+    public Path current() {
+        return this.root.resolve(this.current);
+    }
+
+    /**
+     * Provide the slot where updates are installed.
+     *
+     * @return The slot not used by the running application.
+     */
+    public Path next() {
+        return this.root.resolve(other(this.current));
+    }
+
+    /**
+     * Check if a switch to the other slot is waiting for the next start.
+     *
+     * @return true if the active slot is not the one the application was started from.
+     */
+    public boolean isSwitchPending() {
+        return !this.current.equals(this.activeName());
+    }
+
+    /**
+     * Activate the previous version on the next start, by switching to the other slot.
+     *
+     * @throws IOException If the marker could not be written.
+     */
+    public void rollback() throws IOException {
+        var target = other(this.activeName());
+        if (Files.notExists(this.root.resolve(target))) {
+            throw new IllegalStateException("No version to roll back to in slot " + target + ".");
+        }
+        this.writeMarker(target);
+    }
+
+    /**
+     * Prepare the next slot to receive an update, as a copy of the current slot.
+     * Files are hard linked when possible, the installation replaces them without modifying the current slot.
+     * A pending switch is cancelled first, a crash while the next slot is modified never activates it.
+     *
+     * @throws IOException If the slot could not be prepared.
+     */
+    void prepare() throws IOException {
+        this.writeMarker(this.current);
+        var source = this.current();
+        var target = this.next();
+        if (Files.exists(target)) {
+            try (var content = Files.walk(target)) {
+                for (var path : content.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+        Files.createDirectories(target);
+        if (Files.notExists(source)) {
+            return;
+        }
+        try (var content = Files.walk(source)) {
+            content.forEach(path -> {
+                var copy = target.resolve(source.relativize(path).toString());
+                try {
+                    if (Files.isDirectory(path)) {
+                        Files.createDirectories(copy);
+                    } else {
+                        try {
+                            Files.createLink(copy, path);
+                        } catch (IOException | UnsupportedOperationException e) {
+                            Files.copy(path, copy, StandardCopyOption.COPY_ATTRIBUTES);
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Provide the location of a file in the next slot.
+     *
+     * @param path File location in the current slot.
+     * @return The location in the next slot, or the path itself if it is not in the current slot.
+     */
+    Path rebase(Path path) {
+        var normalized = path.toAbsolutePath().normalize();
+        var source = this.current();
+        if (!normalized.startsWith(source)) {
+            return path;
+        }
+        return this.next().resolve(source.relativize(normalized).toString());
+    }
+
+    /**
+     * Activate the next slot for the next start.
+     *
+     * @throws IOException If the marker could not be written.
+     */
+    void activate() throws IOException {
+        this.writeMarker(other(this.current));
+    }
+
+    /**
+     * Read the active slot name from the marker.
+     *
+     * @return The active slot name, the first slot if the marker does not exist or is invalid.
+     */
+    private String activeName() {
+        try {
+            var name = Files.readString(this.root.resolve(MARKER), StandardCharsets.UTF_8).trim();
+            return SLOT_B.equals(name) ? SLOT_B : SLOT_A;
+        } catch (IOException e) {
+            return SLOT_A;
+        }
+    }
+
+    /**
+     * Replace the marker atomically.
+     * The new marker is synchronized to the disk before the move, and the move afterwards, so a crash leaves either the
+     * previous marker or the complete new one.
+     *
+     * @param slot Name of the slot to activate.
+     * @throws IOException If the marker could not be written.
+     */
+    private void writeMarker(String slot) throws IOException {
+        Files.createDirectories(this.root);
+        var marker = this.root.resolve(MARKER);
+        var temp = this.root.resolve(MARKER + ".tmp");
+        try (var channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            var data = ByteBuffer.wrap(slot.getBytes(StandardCharsets.UTF_8));
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, marker, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        ArchiveInstaller.forceDirectory(this.root);
+    }
+
+    /**
+     * Provide the other slot name.
+     *
+     * @param slot Slot name.
+     * @return The name of the other slot.
+     */
+    private static String other(String slot) {
+        return SLOT_A.equals(slot) ? SLOT_B : SLOT_A;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.updater;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Local copy of the last update manifests retrieved, with their HTTP validators, to only download them again when they changed.
+ *
+ * @author Grégory Van den Borre
+ */
+final class ManifestCache {
+
+    private static final String ETAG_KEY = "etag";
+
+    private static final String LAST_MODIFIED_KEY = "last-modified";
+
+    private static final String INSTALLED_KEY = "installed";
+
+    /**
+     * Directory containing the cached manifests.
+     */
+    private final Path directory;
+
+    /**
+     * Create a new cache.
+     *
+     * @param directory Directory containing the cached manifests.
+     */
+    ManifestCache(Path directory) {
+        super();
+        this.directory = directory;
+    }
+
+    /**
+     * Provide the cached manifest for an url.
+     *
+     * @param url Manifest url.
+     * @return The cached manifest, empty if none is cached or the cache is not readable.
+     */
+    Optional<Entry> get(String url) {
+        var manifest = this.manifestFile(url);
+        var state = this.stateFile(url);
+        if (Files.notExists(manifest) || Files.notExists(state)) {
+            return Optional.empty();
+        }
+        var properties = new Properties();
+        try (var reader = Files.newBufferedReader(state)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+        return Optional.of(new Entry(manifest,
+                properties.getProperty(ETAG_KEY, ""),
+                properties.getProperty(LAST_MODIFIED_KEY, ""),
+                Boolean.parseBoolean(properties.getProperty(INSTALLED_KEY))));
+    }
+
+    /**
+     * Cache a new version of a manifest, not yet installed.
+     *
+     * @param url          Manifest url.
+     * @param content      Manifest content.
+     * @param etag         Entity tag sent by the server, empty if none.
+     * @param lastModified Last modification date sent by the server, empty if none.
+     * @return The cached manifest.
+     * @throws IOException If the manifest could not be written.
+     */
+    Entry put(String url, String content, String etag, String lastModified) throws IOException {
+        Files.createDirectories(this.directory);
+        var manifest = this.manifestFile(url);
+        var temp = manifest.resolveSibling(manifest.getFileName() + ".tmp");
+        Files.writeString(temp, content, StandardCharsets.UTF_8);
+        Files.move(temp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        var entry = new Entry(manifest, etag, lastModified, false);
+        this.writeState(url, entry);
+        return entry;
+    }
+
+    /**
+     * Flag the cached manifest as installed, while it does not change, the update check can be skipped.
+     *
+     * @param url Manifest url.
+     * @throws IOException If the state could not be written.
+     */
+    void markInstalled(String url) throws IOException {
+        var entry = this.get(url);
+        if (entry.isPresent()) {
+            var e = entry.get();
+            this.writeState(url, new Entry(e.manifest(), e.etag(), e.lastModified(), true));
+        }
+    }
+
+    /**
+     * Write the state of a cached manifest.
+     *
+     * @param url   Manifest url.
+     * @param entry Cached manifest.
+     * @throws IOException If the state could not be written.
+     */
+    private void writeState(String url, Entry entry) throws IOException {
+        var properties = new Properties();
+        properties.setProperty(ETAG_KEY, entry.etag());
+        properties.setProperty(LAST_MODIFIED_KEY, entry.lastModified());
+        properties.setProperty(INSTALLED_KEY, String.valueOf(entry.installed()));
+        var state = this.stateFile(url);
+        var temp = state.resolveSibling(state.getFileName() + ".tmp");
+        try (var writer = Files.newBufferedWriter(temp)) {
+            properties.store(writer, url);
+        }
+        Files.move(temp, state, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path manifestFile(String url) {
+        return this.directory.resolve(key(url) + ".xml");
+    }
+
+    private Path stateFile(String url) {
+        return this.directory.resolve(key(url) + ".properties");
+    }
+
+    /**
+     * Provide a file name for an url.
+     *
+     * @param url Manifest url.
+     * @return A name unique for the url.
+     */
+    private static String key(String url) {
+        return UUID.nameUUIDFromBytes(url.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * A cached manifest.
+     *
+     * @param manifest     Manifest file.
+     * @param etag         Entity tag sent by the server, empty if none.
+     * @param lastModified Last modification date sent by the server, empty if none.
+     * @param installed    true if this version was fully installed.
+     */
+    record Entry(Path manifest, String etag, String lastModified, boolean installed) {
+    }
+}
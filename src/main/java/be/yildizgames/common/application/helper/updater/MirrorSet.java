@@ -0,0 +1,289 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.updater;
+
+import be.yildizgames.common.logging.Logger;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Set of mirrors serving the same update, ranked by their measured speed.
+ * A mirror serves the files with the same layout relative to its manifest as the manifest base uri.
+ *
+ * @author Grégory Van den Borre
+ */
+final class MirrorSet {
+
+    /**
+     * Number of bytes assumed to be received in one round trip, to compare the latency of a probe with a measured throughput.
+     */
+    private static final double PROBE_BYTES = 64 * 1024;
+
+    /**
+     * Maximum time to wait for the probes, the mirrors that did not answer yet are ranked after the ones that did.
+     */
+    static final Duration PROBE_TIMEOUT = Duration.ofSeconds(5);
+
+    /**
+     * Maximum number of mirrors the files are spread on.
+     */
+    private static final int STRIPE_WIDTH = 3;
+
+    /**
+     * Mirrors, in their configuration order.
+     */
+    private final List<Mirror> mirrors;
+
+    /**
+     * Counter used to spread the files on the fastest mirrors.
+     */
+    private final AtomicInteger stripe = new AtomicInteger();
+
+    /**
+     * Base uri of the manifest, the file uris are relative to it.
+     */
+    private volatile URI base;
+
+    /**
+     * Creates a new mirror set.
+     *
+     * @param mirrors Mirrors, in their configuration order.
+     */
+    private MirrorSet(List<Mirror> mirrors) {
+        super();
+        this.mirrors = mirrors;
+    }
+
+    /**
+     * Probe all the mirrors at the same time to measure their latency.
+     * A single mirror is not probed. The probes never last more than PROBE_TIMEOUT, even without request timeout.
+     *
+     * @param client       Http client to use.
+     * @param manifestUrls Manifest url of each mirror.
+     * @param timeout      Request timeout, null for no timeout.
+     * @return The probed mirror set.
+     */
+    static MirrorSet probe(HttpClient client, List<String> manifestUrls, Duration timeout) {
+        if (manifestUrls.isEmpty()) {
+            throw new IllegalArgumentException("At least one mirror is required.");
+        }
+        var mirrors = manifestUrls.stream().map(Mirror::new).toList();
+        if (mirrors.size() > 1) {
+            var probeTimeout = timeout == null || timeout.compareTo(PROBE_TIMEOUT) > 0 ? PROBE_TIMEOUT : timeout;
+            CompletableFuture.allOf(mirrors.stream()
+                            .map(m -> m.probe(client, probeTimeout))
+                            .toArray(CompletableFuture[]::new))
+                    .completeOnTimeout(null, probeTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .join();
+        }
+        return new MirrorSet(mirrors);
+    }
+
+    /**
+     * Provide the manifest urls, fastest mirror first, mirrors that failed last.
+     *
+     * @return The ranked manifest urls.
+     */
+    List<String> manifests() {
+        return this.ranked().stream().map(m -> m.manifest).toList();
+    }
+
+    /**
+     * Set the manifest base uri, the file uris are resolved on each mirror relative to it.
+     *
+     * @param base Base uri of the manifest.
+     */
+    void withBase(URI base) {
+        this.base = base;
+    }
+
+    /**
+     * Provide the uris a file can be downloaded from.
+     * Successive files start on a different mirror among the fastest ones, the other mirrors follow to fail over.
+     *
+     * @param uri Uri of the file in the manifest.
+     * @return The uris to try, in order.
+     */
+    List<URI> candidates(URI uri) {
+        if (this.base == null || this.mirrors.size() == 1) {
+            return List.of(uri);
+        }
+        var relative = this.base.relativize(uri);
+        if (relative.isAbsolute()) {
+            return List.of(uri);
+        }
+        var ranked = this.ranked();
+        var available = (int) ranked.stream().filter(m -> !m.failed).count();
+        var width = Math.clamp(Math.min(STRIPE_WIDTH, available), 1, ranked.size());
+        var first = Math.floorMod(this.stripe.getAndIncrement(), width);
+        List<URI> result = new ArrayList<>(ranked.size());
+        for (var i = 0; i < ranked.size(); i++) {
+            var mirror = ranked.get(i < width ? (first + i) % width : i);
+            result.add(mirror.base.resolve(relative));
+        }
+        return result;
+    }
+
+    /**
+     * Record a transfer made from a mirror, to measure its throughput.
+     *
+     * @param uri   Downloaded uri.
+     * @param bytes Number of bytes received.
+     * @param nanos Duration of the transfer, in nanoseconds.
+     */
+    void transferred(URI uri, long bytes, long nanos) {
+        this.find(uri).ifPresent(m -> m.transferred(bytes, nanos));
+    }
+
+    /**
+     * Flag a mirror as failing, it is only used when the other ones fail too.
+     *
+     * @param uri Uri that could not be downloaded.
+     */
+    void failed(URI uri) {
+        this.find(uri).ifPresent(m -> {
+            m.failed = true;
+            Logger.getLogger(this).warning("Mirror {0} failed, using the other mirrors.", m.manifest);
+        });
+    }
+
+    /**
+     * Find the mirror serving an uri.
+     *
+     * @param uri Uri served by a mirror.
+     * @return The mirror, empty if no mirror serves it.
+     */
+    private Optional<Mirror> find(URI uri) {
+        return this.mirrors.stream()
+                .filter(m -> !m.base.relativize(uri).isAbsolute())
+                .max(Comparator.comparingInt(m -> m.base.toString().length()));
+    }
+
+    /**
+     * Sort the mirrors, fastest first, mirrors that failed last.
+     * The speeds are read once before sorting, as they are updated by the downloads.
+     *
+     * @return The sorted mirrors.
+     */
+    private List<Mirror> ranked() {
+        record Ranking(Mirror mirror, boolean failed, double score) {
+        }
+        return this.mirrors.stream()
+                .map(m -> new Ranking(m, m.failed, m.score()))
+                .sorted(Comparator.comparing(Ranking::failed)
+                        .thenComparing(Comparator.comparingDouble(Ranking::score).reversed()))
+                .map(Ranking::mirror)
+                .toList();
+    }
+
+    /**
+     * A mirror and its measured speed.
+     */
+    private static final class Mirror {
+
+        /**
+         * Manifest url.
+         */
+        private final String manifest;
+
+        /**
+         * Base uri of the files on this mirror, the directory of the manifest.
+         */
+        private final URI base;
+
+        /**
+         * Latency measured by the probe, in nanoseconds, 0 if not probed.
+         */
+        private volatile long latency;
+
+        /**
+         * Total number of bytes received from this mirror.
+         */
+        private long bytes;
+
+        /**
+         * Total duration of the transfers from this mirror, in nanoseconds.
+         */
+        private long nanos;
+
+        /**
+         * Flag set when the mirror could not be reached or failed a transfer.
+         */
+        private volatile boolean failed;
+
+        private Mirror(String manifest) {
+            this.manifest = manifest;
+            this.base = URI.create(manifest).resolve(".");
+        }
+
+        /**
+         * Measure the latency with a HEAD request on the manifest.
+         *
+         * @param client  Http client to use.
+         * @param timeout Request timeout.
+         * @return The probe completion.
+         */
+        private CompletableFuture<Void> probe(HttpClient client, Duration timeout) {
+            var request = HttpRequest.newBuilder(URI.create(this.manifest)).method("HEAD", HttpRequest.BodyPublishers.noBody())
+                    .timeout(timeout);
+            var start = System.nanoTime();
+            return client.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> {
+                        if (error != null || response.statusCode() >= 400) {
+                            this.failed = true;
+                        } else {
+                            this.latency = Math.max(1, System.nanoTime() - start);
+                        }
+                        return null;
+                    });
+        }
+
+        /**
+         * Record a transfer.
+         *
+         * @param bytes Number of bytes received.
+         * @param nanos Duration of the transfer, in nanoseconds.
+         */
+        private synchronized void transferred(long bytes, long nanos) {
+            this.bytes += bytes;
+            this.nanos += nanos;
+        }
+
+        /**
+         * Estimate the speed of the mirror, in bytes per nanosecond.
+         * The measured throughput is used once the mirror transferred data, the probe latency before.
+         *
+         * @return The speed, higher is faster, 0 if unknown.
+         */
+        private synchronized double score() {
+            if (this.nanos > 0 && this.bytes > 0) {
+                return (double) this.bytes / this.nanos;
+            }
+            return this.latency > 0 ? PROBE_BYTES / this.latency : 0;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.updater;
+
+import org.update4j.FileMetadata;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Download the files of an update at the same time, before update4j installs them from their local copy.
+ *
+ * @author Grégory Van den Borre
+ */
+final class ParallelDownloader {
+
+    /**
+     * Downloader for a single file.
+     */
+    private final FileDownloader downloader;
+
+    /**
+     * Maximum number of files downloaded at the same time.
+     */
+    private final int concurrency;
+
+    /**
+     * Creates a new parallel downloader.
+     *
+     * @param downloader  Downloader for a single file.
+     * @param concurrency Maximum number of files downloaded at the same time.
+     */
+    ParallelDownloader(FileDownloader downloader, int concurrency) {
+        super();
+        this.downloader = downloader;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Download all the files, files with the same content are only downloaded once.
+     * Each downloaded file is registered in the notifier to be served to update4j.
+     *
+     * @param files     Files to download.
+     * @param directory Directory where the files are downloaded.
+     * @param timeout   Request timeout, null for no timeout.
+     * @param notifier  Notifier to report the progress and register the downloaded files.
+     * @return The downloaded files.
+     * @throws IOException If a download failed, the other ones are cancelled.
+     */
+    List<Path> download(List<FileMetadata> files, Path directory, Duration timeout, UpdateHandlerNotifier notifier) throws IOException {
+        Map<String, List<FileMetadata>> byContent = new LinkedHashMap<>();
+        files.forEach(f -> byContent.computeIfAbsent(FileDownloader.localName(f), k -> new ArrayList<>()).add(f));
+        if (byContent.isEmpty()) {
+            return List.of();
+        }
+        Files.createDirectories(directory);
+        var progress = new Progress(byContent.values().stream().mapToLong(l -> l.getFirst().getSize()).sum(), notifier);
+        notifier.notify(UpdateDownloadListener::startDownloads);
+        var counter = new AtomicInteger();
+        var executor = Executors.newFixedThreadPool(Math.min(this.concurrency, byContent.size()), r -> {
+            var thread = new Thread(r, "update-download-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Path>> futures = new ArrayList<>();
+            for (var sameContent : byContent.values()) {
+                futures.add(executor.submit(() -> this.downloadFile(sameContent, directory, timeout, notifier, progress)));
+            }
+            List<Path> result = new ArrayList<>(futures.size());
+            for (var future : futures) {
+                try {
+                    result.add(future.get());
+                } catch (ExecutionException e) {
+                    futures.forEach(f -> f.cancel(true));
+                    throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+                }
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Download interrupted.");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Download a file and register it for all the manifest entries sharing its content.
+     *
+     * @param sameContent Manifest entries with the same content.
+     * @param directory   Directory where the file is downloaded.
+     * @param timeout     Request timeout, null for no timeout.
+     * @param notifier    Notifier to report the progress and register the downloaded files.
+     * @param progress    Overall progress.
+     * @return The downloaded file.
+     * @throws IOException If the download failed.
+     */
+    private Path downloadFile(List<FileMetadata> sameContent, Path directory, Duration timeout, UpdateHandlerNotifier notifier, Progress progress) throws IOException {
+        var file = sameContent.getFirst();
+        var size = file.getSize();
+        notifier.notify(l -> l.startDownloadFile(file.getPath()));
+        var received = new long[1];
+        var lastPercent = new int[]{-1};
+        var path = this.downloader.download(file, directory, timeout, read -> {
+            received[0] += read;
+            var percent = percent(received[0], size);
+            if (percent != lastPercent[0]) {
+                lastPercent[0] = percent;
+                notifier.notify(l -> l.fileUpdated(file.getPath(), percent));
+            }
+            progress.add(read);
+        });
+        for (var entry : sameContent) {
+            notifier.prefetched(entry, path);
+            notifier.notify(l -> l.fileCompletedSuccessfully(entry.getPath()));
+        }
+        return path;
+    }
+
+    /**
+     * Compute a percentage.
+     *
+     * @param done  Amount done.
+     * @param total Total amount.
+     * @return The percentage, between 0 and 100.
+     */
+    private static int percent(long done, long total) {
+        return total <= 0 ? 100 : (int) Math.min(100, done * 100 / total);
+    }
+
+    /**
+     * Overall progress of the downloads, shared by all the download threads.
+     */
+    private static final class Progress {
+
+        /**
+         * Total number of bytes to download.
+         */
+        private final long total;
+
+        /**
+         * Number of bytes downloaded so far.
+         */
+        private final AtomicLong received = new AtomicLong();
+
+        /**
+         * Last notified percentage.
+         */
+        private final AtomicInteger lastPercent = new AtomicInteger(-1);
+
+        /**
+         * Notifier to report the progress.
+         */
+        private final UpdateHandlerNotifier notifier;
+
+        private Progress(long total, UpdateHandlerNotifier notifier) {
+            this.total = total;
+            this.notifier = notifier;
+        }
+
+        /**
+         * Add received bytes and notify the new percentage if it changed.
+         *
+         * @param read Number of bytes received.
+         */
+        private void add(long read) {
+            var percent = percent(this.received.addAndGet(read), this.total);
+            var last = this.lastPercent.get();
+            if (percent > last && this.lastPercent.compareAndSet(last, percent)) {
+                this.notifier.notify(l -> l.downloadUpdated(percent));
+            }
+        }
+    }
+}
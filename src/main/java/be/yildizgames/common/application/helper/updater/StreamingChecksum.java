@@ -0,0 +1,168 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.updater;
+
+import org.update4j.FileMetadata;
+
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.zip.Adler32;
+
+/**
+ * Checksum computed on the downloaded bytes as they arrive, to reject a corrupted file as soon as it is received.
+ * The algorithm is chosen with the factory methods, any message digest provided by the security providers can be used.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class StreamingChecksum {
+
+    /**
+     * Start the verification of a file.
+     */
+    private final Starter starter;
+
+    /**
+     * Creates a new checksum.
+     *
+     * @param starter Start the verification of a file.
+     */
+    private StreamingChecksum(Starter starter) {
+        super();
+        this.starter = starter;
+    }
+
+    /**
+     * Verify the files with the update4j checksum from the manifest, this is the default.
+     *
+     * @return The checksum.
+     */
+    public static StreamingChecksum adler32() {
+        return new StreamingChecksum((path, expected) -> {
+            var checksum = new Adler32();
+            return Optional.of(new Verification() {
+                @Override
+                public void update(byte[] data, int offset, int length) {
+                    checksum.update(data, offset, length);
+                }
+
+                @Override
+                public boolean matches() {
+                    return checksum.getValue() == expected;
+                }
+            });
+        });
+    }
+
+    /**
+     * Verify the files with a message digest, like SHA-256.
+     *
+     * @param algorithm Message digest algorithm name.
+     * @param expected  Provide the expected hexadecimal digest of a file from its path in the manifest, empty if unknown.
+     * @return The checksum.
+     * @throws IllegalArgumentException If the algorithm is not supported.
+     */
+    public static StreamingChecksum digest(String algorithm, Function<Path, Optional<String>> expected) {
+        Objects.requireNonNull(expected);
+        try {
+            MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException("Unsupported digest algorithm: " + algorithm, e);
+        }
+        return new StreamingChecksum((path, checksum) -> expected.apply(path).map(value -> {
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance(algorithm);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            return new Verification() {
+                @Override
+                public void update(byte[] data, int offset, int length) {
+                    digest.update(data, offset, length);
+                }
+
+                @Override
+                public boolean matches() {
+                    return HexFormat.of().formatHex(digest.digest()).equalsIgnoreCase(value);
+                }
+            };
+        }));
+    }
+
+    /**
+     * Start the verification of a file.
+     *
+     * @param file File to verify.
+     * @return The verification, empty if the expected value is not known for this file.
+     */
+    Optional<Verification> start(FileMetadata file) {
+        return this.start(file.getPath(), file.getChecksum());
+    }
+
+    /**
+     * Start the verification of a file.
+     *
+     * @param path     Path of the file in the manifest.
+     * @param checksum Update4j checksum of the file in the manifest.
+     * @return The verification, empty if the expected value is not known for this file.
+     */
+    Optional<Verification> start(Path path, long checksum) {
+        return this.starter.start(path, checksum);
+    }
+
+    /**
+     * Start the verification of a file.
+     */
+    @FunctionalInterface
+    private interface Starter {
+
+        /**
+         * Start the verification of a file.
+         *
+         * @param path     Path of the file in the manifest.
+         * @param checksum Update4j checksum of the file in the manifest.
+         * @return The verification, empty if the expected value is not known for this file.
+         */
+        Optional<Verification> start(Path path, long checksum);
+    }
+
+    /**
+     * Verification of a single file.
+     */
+    interface Verification {
+
+        /**
+         * Add received bytes.
+         *
+         * @param data   Received bytes.
+         * @param offset First byte to use.
+         * @param length Number of bytes to use.
+         */
+        void update(byte[] data, int offset, int length);
+
+        /**
+         * Check the computed value, once all the bytes are received.
+         *
+         * @return true if the value is the expected one.
+         */
+        boolean matches();
+    }
+}
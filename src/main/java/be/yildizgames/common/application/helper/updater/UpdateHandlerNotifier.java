@@ -0,0 +1,128 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.updater;
+
+import org.update4j.FileMetadata;
+import org.update4j.service.UpdateHandler;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Notifies update listeners of events during the download process.
+ * Files already downloaded before update4j runs are served from their local copy, their download events are not
+ * notified a second time.
+ * Listeners are never called concurrently, even when files are downloaded in parallel.
+ *
+ * @author Grégory Van den Borre
+ */
+final class UpdateHandlerNotifier implements UpdateHandler {
+
+    /**
+     * The list of update listeners.
+     */
+    private final List<UpdateDownloadListener> listener;
+
+    /**
+     * Local copies of the files already downloaded, by remote uri.
+     */
+    private final Map<URI, Path> prefetched = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new notifier with the given listeners.
+     *
+     * @param listener the list of listeners
+     */
+    UpdateHandlerNotifier(final List<UpdateDownloadListener> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Register the local copy of a file already downloaded.
+     *
+     * @param file the downloaded file
+     * @param path the local copy
+     */
+    void prefetched(FileMetadata file, Path path) {
+        this.prefetched.put(file.getUri(), path);
+    }
+
+    /**
+     * Notify all the listeners.
+     *
+     * @param event the event to send to each listener
+     */
+    synchronized void notify(Consumer<UpdateDownloadListener> event) {
+        this.listener.forEach(event);
+    }
+
+    @Override
+    public InputStream openDownloadStream(FileMetadata file) throws Throwable {
+        var path = this.prefetched.get(file.getUri());
+        return path == null ? UpdateHandler.super.openDownloadStream(file) : Files.newInputStream(path);
+    }
+
+    @Override
+    public void startDownloads() {
+        if (this.prefetched.isEmpty()) {
+            this.notify(UpdateDownloadListener::startDownloads);
+        }
+    }
+
+    @Override
+    public void updateDownloadFileProgress(FileMetadata file, float frac) {
+        if (!this.prefetched.containsKey(file.getUri())) {
+            this.notify(l -> l.fileUpdated(file.getPath(), (int) (frac * 100)));
+        }
+    }
+
+    @Override
+    public void doneDownloadFile(FileMetadata file, Path path) {
+        if (!this.prefetched.containsKey(file.getUri())) {
+            this.notify(l -> l.fileCompletedSuccessfully(file.getPath()));
+        }
+    }
+
+    @Override
+    public void updateDownloadProgress(float frac) {
+        if (this.prefetched.isEmpty()) {
+            this.notify(l -> l.downloadUpdated((int) (frac * 100)));
+        }
+    }
+
+    @Override
+    public void doneDownloads() {
+        this.notify(UpdateDownloadListener::downloadCompletedSuccessfully);
+    }
+
+    @Override
+    public void startDownloadFile(FileMetadata file) {
+        if (!this.prefetched.containsKey(file.getUri())) {
+            this.notify(l -> l.startDownloadFile(file.getPath()));
+        }
+    }
+
+    @Override
+    public void succeeded() {
+        this.notify(UpdateDownloadListener::completed);
+    }
+}
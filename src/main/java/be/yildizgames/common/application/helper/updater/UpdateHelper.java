@@ -21,32 +21,112 @@ import org.update4j.Archive;
 import org.update4j.Configuration;
 import org.update4j.FileMetadata;
 import org.update4j.UpdateOptions;
-import org.update4j.service.UpdateHandler;
+import org.update4j.UpdateResult;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.temporal.TemporalAmount;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.function.DoubleSupplier;
+import java.util.function.UnaryOperator;
 
 
 /**
  * Handles checking for and applying updates.
+ * Once configured, update and download can be called concurrently, concurrent checks for the same url share a single check.
  *
  * @author Grégory Van den Borre
  */
 public class UpdateHelper {
 
     /**
-     * A map of last update times by URL.
+     * Configuration key for the maximum download rate of the updates, in bytes per second.
      */
-    private final Map<String, LocalDateTime> lastUpdate = new HashMap<>();
+    public static final String BANDWIDTH_LIMIT_KEY = "update.bandwidth.limit";
+
+    /**
+     * Name of the phase probing the mirrors and reading the manifest.
+     */
+    public static final String PHASE_CHECK = "update.check";
+
+    /**
+     * Name of the phase downloading the files in the archive.
+     */
+    public static final String PHASE_DOWNLOAD = "update.download";
+
+    /**
+     * Name of the phase installing the archive.
+     */
+    public static final String PHASE_INSTALL = "update.install";
+
+    /**
+     * Last update check times by URL, and checks in progress.
+     */
+    private UpdateThrottle throttle = new UpdateThrottle(null);
 
     private final HttpClientBuilder httpClientBuilder;
 
+    /**
+     * Http client shared by all the file downloads, built on first use.
+     */
+    private HttpClient downloadClient;
+
+    /**
+     * Maximum number of files downloaded at the same time.
+     */
+    private int concurrency = 1;
+
+    /**
+     * Local store of the downloaded files, null if none is used.
+     */
+    private ContentStore store;
+
+    /**
+     * Flag to download the binary patches advertised in the manifest instead of the full files.
+     */
+    private boolean deltaUpdates;
+
+    /**
+     * Local copy of the retrieved manifests, null if none is used.
+     */
+    private ManifestCache manifestCache;
+
+    /**
+     * Checksum verified on the downloaded bytes as they arrive.
+     */
+    private StreamingChecksum checksum = StreamingChecksum.adler32();
+
+    /**
+     * Limiter of the download rate, shared by all the downloads, null for no limit.
+     */
+    private BandwidthLimiter limiter;
+
+    /**
+     * Slots to install the updates without modifying the running version, null to install in place.
+     */
+    private InstallSlots slots;
+
+    /**
+     * Listener notified of the timing of each update phase, never null.
+     */
+    private volatile UpdatePhaseListener phaseListener = (phase, start, end) -> {
+    };
+
     /**
      * Creates a new update helper.
      */
@@ -55,8 +135,161 @@ public class UpdateHelper {
         this.httpClientBuilder = HttpClientBuilder.provide();
     }
 
+    /**
+     * Set the maximum number of files to download at the same time.
+     * Files are downloaded over a shared HTTP/2 client before being installed.
+     *
+     * @param concurrency Maximum number of parallel downloads, 1 to download the files one after the other, default is 1.
+     * @return This helper.
+     */
+    public final UpdateHelper withConcurrency(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be at least 1.");
+        }
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    /**
+     * Use a local store of the downloaded files, checked before downloading any file.
+     * The store can be shared by several applications, unchanged files are then never downloaded again.
+     *
+     * @param directory Directory containing the stored files.
+     * @param maxSize   Maximum size of the store in bytes, least recently used files are evicted first.
+     * @return This helper.
+     */
+    public final UpdateHelper withCache(Path directory, long maxSize) {
+        this.store = new ContentStore(Objects.requireNonNull(directory), maxSize);
+        return this;
+    }
+
+    /**
+     * Download the binary patches advertised in the manifest instead of the full files when possible.
+     * A patch is advertised with a manifest property named 'patch.[new checksum].[installed checksum]' whose value is the
+     * patch uri, patches are built with DeltaPatch.create. The full file is downloaded if no patch matches the installed version.
+     *
+     * @return This helper.
+     */
+    public final UpdateHelper withDeltaUpdates() {
+        this.deltaUpdates = true;
+        return this;
+    }
+
+    /**
+     * Keep a local copy of the retrieved manifests, with their ETag and Last-Modified values.
+     * A manifest is then requested with If-None-Match and If-Modified-Since, and if it did not change since it was last
+     * installed, the update check is skipped without parsing it nor checking the local files.
+     *
+     * @param directory Directory containing the cached manifests.
+     * @return This helper.
+     */
+    public final UpdateHelper withManifestCache(Path directory) {
+        this.manifestCache = new ManifestCache(Objects.requireNonNull(directory));
+        return this;
+    }
+
+    /**
+     * Set the checksum verified on the downloaded bytes as they arrive, default is the update4j manifest checksum.
+     *
+     * @param checksum Checksum to verify.
+     * @return This helper.
+     */
+    public final UpdateHelper withChecksum(StreamingChecksum checksum) {
+        this.checksum = Objects.requireNonNull(checksum);
+        return this;
+    }
+
+    /**
+     * Persist the last update check times in a file, so the delay between checks is honoured across restarts.
+     *
+     * @param file File where the check times are stored.
+     * @return This helper.
+     */
+    public final UpdateHelper withThrottleFile(Path file) {
+        this.throttle = new UpdateThrottle(Objects.requireNonNull(file));
+        return this;
+    }
+
+    /**
+     * Limit the download rate, to leave bandwidth to the application traffic.
+     *
+     * @param bytesPerSecond Maximum rate in bytes per second, shared by all the parallel downloads.
+     * @return This helper.
+     */
+    public final UpdateHelper withBandwidthLimit(long bytesPerSecond) {
+        this.limiter = new BandwidthLimiter(bytesPerSecond, () -> 0);
+        return this;
+    }
+
+    /**
+     * Limit the download rate, and lower it while the application traffic is high, down to a tenth of the limit.
+     *
+     * @param bytesPerSecond Maximum rate in bytes per second, shared by all the parallel downloads.
+     * @param foregroundLoad Current application traffic load, between 0 (idle) and 1 (saturated).
+     * @return This helper.
+     */
+    public final UpdateHelper withAdaptiveBandwidthLimit(long bytesPerSecond, DoubleSupplier foregroundLoad) {
+        this.limiter = new BandwidthLimiter(bytesPerSecond, Objects.requireNonNull(foregroundLoad));
+        return this;
+    }
+
+    /**
+     * Install the updates in the slot not used by the running application, and activate it for the next start.
+     * The running version is never modified, downloaded updates are installed at once even with download, and
+     * InstallSlots.rollback restores the previous version.
+     * Manifest files located in the current slot are installed in the next one, other files are installed in place.
+     *
+     * @param slots Installation slots.
+     * @return This helper.
+     */
+    public final UpdateHelper withSlots(InstallSlots slots) {
+        this.slots = Objects.requireNonNull(slots);
+        return this;
+    }
+
+    /**
+     * Set the listener notified of the timing of the check, download and install phases.
+     *
+     * @param listener Listener to notify.
+     * @return This helper.
+     */
+    public final UpdateHelper withPhaseListener(UpdatePhaseListener listener) {
+        this.phaseListener = Objects.requireNonNull(listener);
+        return this;
+    }
+
+    /**
+     * Check if the updates are installed in slots, without modifying the running version.
+     *
+     * @return true if slots are used.
+     */
+    public final boolean usesSlots() {
+        return this.slots != null;
+    }
+
+    /**
+     * Configure the helper from the application configuration, keys not present are ignored.
+     * Supported key: BANDWIDTH_LIMIT_KEY, ignored if a limit was already set, so a limit set in code is never overridden.
+     *
+     * @param properties Application configuration.
+     * @return This helper.
+     * @throws IllegalArgumentException If a value is invalid.
+     */
+    public final UpdateHelper withProperties(Properties properties) {
+        var limit = properties.getProperty(BANDWIDTH_LIMIT_KEY);
+        if (this.limiter == null && limit != null && !limit.isBlank()) {
+            try {
+                this.withBandwidthLimit(Long.parseLong(limit.trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value for " + BANDWIDTH_LIMIT_KEY + ": " + limit, e);
+            }
+        }
+        return this;
+    }
+
     /**
      * Checks for and applies any available updates.
+     * Files are downloaded next to the archive, in a directory named after it, an interrupted download is resumed on the next call.
      *
      * @param url         the update URL
      * @param archiveName the archive file name
@@ -65,82 +298,323 @@ public class UpdateHelper {
      * @param listener    event listeners
      */
     public final void update(String url, String archiveName, TemporalAmount delay, int timeout, List<UpdateDownloadListener> listener) {
-        var now = LocalDateTime.now();
-        if (!this.lastUpdate.containsKey(url) || now.isAfter(this.lastUpdate.computeIfAbsent(url, a -> now).plus(delay))) {
+        this.update(List.of(url), archiveName, delay, timeout, listener);
+    }
+
+    /**
+     * Checks for and applies any available updates from a set of mirrors.
+     * The mirrors are probed at the same time, the manifest is read from the fastest one and the files are spread on the fastest ones.
+     * A mirror failing during a download is replaced by the next one, which continues from the bytes already received.
+     * Each mirror serves the files with the same layout relative to its manifest as the manifest base uri.
+     *
+     * @param mirrors     the manifest URL of each mirror, the first one identifies the update for the delay between checks
+     * @param archiveName the archive file name
+     * @param delay       minimum delay between checks
+     * @param timeout     HTTP timeout
+     * @param listener    event listeners
+     */
+    public final void update(List<String> mirrors, String archiveName, TemporalAmount delay, int timeout, List<UpdateDownloadListener> listener) {
+        this.check(mirrors, archiveName, delay, timeout, listener, true);
+    }
+
+    /**
+     * Checks for and downloads any available updates into the archive, without installing it.
+     * The archive is installed later with installDownloaded, typically on the next start, the running application is not modified.
+     *
+     * @param url         the update URL
+     * @param archiveName the archive file name
+     * @param delay       minimum delay between checks
+     * @param timeout     HTTP timeout
+     * @param listener    event listeners
+     * @return true if an update is downloaded and waiting to be installed.
+     */
+    public final boolean download(String url, String archiveName, TemporalAmount delay, int timeout, List<UpdateDownloadListener> listener) {
+        return this.download(List.of(url), archiveName, delay, timeout, listener);
+    }
+
+    /**
+     * Checks for and downloads any available updates from a set of mirrors into the archive, without installing it.
+     *
+     * @param mirrors     the manifest URL of each mirror, the first one identifies the update for the delay between checks
+     * @param archiveName the archive file name
+     * @param delay       minimum delay between checks
+     * @param timeout     HTTP timeout
+     * @param listener    event listeners
+     * @return true if an update is downloaded and waiting to be installed.
+     */
+    public final boolean download(List<String> mirrors, String archiveName, TemporalAmount delay, int timeout, List<UpdateDownloadListener> listener) {
+        return this.check(mirrors, archiveName, delay, timeout, listener, false);
+    }
+
+    /**
+     * Install an update previously downloaded with download, if any.
+     *
+     * @param archiveName the archive file name
+     * @return true if an update was installed, false if no update was waiting.
+     * @throws IOException If the update could not be installed.
+     */
+    public static boolean installDownloaded(String archiveName) throws IOException {
+        if (Files.notExists(Path.of(archiveName))) {
+            return false;
+        }
+        ArchiveInstaller.install(Path.of(archiveName), null, UnaryOperator.identity());
+        return true;
+    }
+
+    /**
+     * Checks for any available updates, and download them.
+     *
+     * @param mirrors     the manifest URL of each mirror
+     * @param archiveName the archive file name
+     * @param delay       minimum delay between checks
+     * @param timeout     HTTP timeout
+     * @param listener    event listeners
+     * @param apply       true to install the update, false to keep it in the archive.
+     * @return true if an update was installed, or downloaded when not applied, a call made while a check is running for
+     * the same url returns the result of that check and its listeners are not notified.
+     */
+    private boolean check(List<String> mirrors, String archiveName, TemporalAmount delay, int timeout, List<UpdateDownloadListener> listener, boolean apply) {
+        var key = mirrors.getFirst();
+        return this.throttle.run(key, delay, () -> {
+            var now = LocalDateTime.now();
+            var result = false;
+            var phaseListener = this.phaseListener;
+            phaseListener.phaseStarted(PHASE_CHECK);
+            var checkStart = System.nanoTime();
             try {
-                var config = Configuration.read(new BufferedReader(new InputStreamReader(this.httpClientBuilder.buildHttpClient(timeout).getInputStream(url).body().orElseThrow())));
-                if (config.requiresUpdate()) {
-                    var result = config.update(
-                            UpdateOptions
-                                    .archive(Path.of(archiveName))
-                                    .updateHandler(new UpdateHandlerNotifier(listener)));
-                    if(result.getException()  != null) {
-                        Logger.getLogger(this).error(result.getException());
-                    } else {
-                        Archive.read(archiveName).install(true);
+                MirrorSet mirrorSet;
+                String url = null;
+                Optional<Configuration> config = Optional.empty();
+                try {
+                    mirrorSet = MirrorSet.probe(this.downloadClient(), mirrors, timeout(timeout));
+                    var manifests = mirrorSet.manifests();
+                    for (var i = 0; url == null; i++) {
+                        try {
+                            config = this.readManifest(manifests.get(i), timeout);
+                            url = manifests.get(i);
+                        } catch (IOException e) {
+                            if (i == manifests.size() - 1) {
+                                throw e;
+                            }
+                            Logger.getLogger(this).warning("Manifest could not be retrieved from {0}: {1}", manifests.get(i), e.getMessage());
+                        }
+                    }
+                } finally {
+                    phaseListener.phaseCompleted(PHASE_CHECK, checkStart, System.nanoTime());
+                }
+                if (config.isEmpty()) {
+                    listener.forEach(UpdateDownloadListener::fileUpToDate);
+                } else if (config.get().requiresUpdate()) {
+                    mirrorSet.withBase(config.get().getBaseUri());
+                    result = this.install(config.get(), archiveName, timeout, listener, apply, mirrorSet, phaseListener);
+                    if (result && (apply || this.slots != null)) {
+                        this.markInstalled(url);
                     }
                 } else {
                     listener.forEach(UpdateDownloadListener::fileUpToDate);
+                    this.markInstalled(url);
                 }
-                this.lastUpdate.put(url, now);
+                this.throttle.checked(key, now);
             } catch (Exception e) {
                 listener.forEach(l -> l.downloadFailure(e));
             }
-        }
+            return result;
+        });
     }
 
     /**
-     * Notifies update listeners of events during the download process.
+     * Download the files requiring an update in the archive, and install them.
+     *
+     * @param config      Update manifest.
+     * @param archiveName the archive file name
+     * @param timeout     HTTP timeout
+     * @param listener    event listeners
+     * @param apply       true to install the archive, false to keep it for later, the archive is always installed with slots.
+     * @param mirrors     Mirrors to download the files from.
+     * @param phases      Listener notified of the download and install timing.
+     * @return true if the update was downloaded, and installed if applied.
+     * @throws IOException If the update could not be downloaded or installed.
      */
-    private static class UpdateHandlerNotifier implements UpdateHandler {
-
-        /**
-         * The list of update listeners.
-         */
-        private final List<UpdateDownloadListener> listener;
-
-        /**
-         * Creates a new notifier with the given listeners.
-         *
-         * @param listener the list of listeners
-         */
-        private UpdateHandlerNotifier(final List<UpdateDownloadListener> listener) {
-            this.listener = listener;
+    private boolean install(Configuration config, String archiveName, int timeout, List<UpdateDownloadListener> listener, boolean apply, MirrorSet mirrors, UpdatePhaseListener phases) throws IOException {
+        if (!apply && this.slots == null && isDownloaded(config, archiveName)) {
+            return true;
         }
-
-        @Override
-        public final void startDownloads() {
-            this.listener.forEach(UpdateDownloadListener::startDownloads);
+        phases.phaseStarted(PHASE_DOWNLOAD);
+        var downloadStart = System.nanoTime();
+        var notifier = new UpdateHandlerNotifier(listener);
+        var downloadDirectory = Path.of(archiveName + ".download");
+        List<Path> downloaded;
+        UpdateResult result;
+        try {
+            downloaded = new ParallelDownloader(new FileDownloader(this.downloadClient(), this.store, this.deltaUpdates ? new DeltaResolver(config) : null, this.checksum, this.limiter, mirrors), this.concurrency)
+                    .download(filesToUpdate(config), downloadDirectory, timeout(timeout), notifier);
+            result = config.update(
+                    UpdateOptions
+                            .archive(Path.of(archiveName))
+                            .updateHandler(notifier));
+        } finally {
+            phases.phaseCompleted(PHASE_DOWNLOAD, downloadStart, System.nanoTime());
+        }
+        if(result.getException()  != null) {
+            Logger.getLogger(this).error(result.getException());
+            return false;
+        }
+        var installed = this.slots != null || apply;
+        if (installed) {
+            phases.phaseStarted(PHASE_INSTALL);
         }
+        var installStart = System.nanoTime();
+        try {
+            if (this.slots != null) {
+                this.slots.prepare();
+                ArchiveInstaller.install(Path.of(archiveName), downloadDirectory, this.slots::rebase);
+                this.slots.activate();
+            } else if (apply) {
+                ArchiveInstaller.install(Path.of(archiveName), downloadDirectory, UnaryOperator.identity());
+            }
+            if (this.store != null) {
+                for (var file : downloaded) {
+                    this.store.store(file);
+                }
+            }
+            deleteDirectory(downloadDirectory);
+        } finally {
+            if (installed) {
+                phases.phaseCompleted(PHASE_INSTALL, installStart, System.nanoTime());
+            }
+        }
+        return true;
+    }
 
-        @Override
-        public final void updateDownloadFileProgress(FileMetadata file, float frac) {
-            this.listener.forEach(l -> l.fileUpdated(file.getPath(), (int) (frac * 100)));
+    /**
+     * Check if the archive already contains a manifest version.
+     *
+     * @param config      Update manifest.
+     * @param archiveName the archive file name
+     * @return true if the archive exists and was built from this manifest.
+     */
+    private static boolean isDownloaded(Configuration config, String archiveName) {
+        if (Files.notExists(Path.of(archiveName))) {
+            return false;
+        }
+        try {
+            return config.equals(Archive.read(archiveName).getConfiguration());
+        } catch (IOException | RuntimeException e) {
+            return false;
         }
+    }
 
-        @Override
-        public final void doneDownloadFile(FileMetadata file, Path path) {
-            this.listener.forEach(l -> l.fileCompletedSuccessfully(file.getPath()));
+    /**
+     * Retrieve the update manifest.
+     * With a manifest cache, the manifest is only downloaded if it changed since the last retrieval.
+     *
+     * @param url     Manifest url.
+     * @param timeout HTTP timeout
+     * @return The manifest, empty if it did not change since it was last installed.
+     * @throws IOException If the manifest could not be retrieved.
+     */
+    private Optional<Configuration> readManifest(String url, int timeout) throws IOException {
+        if (this.manifestCache == null) {
+            return Optional.of(Configuration.read(new BufferedReader(new InputStreamReader(this.httpClientBuilder.buildHttpClient(timeout).getInputStream(url).body().orElseThrow()))));
+        }
+        var cached = this.manifestCache.get(url);
+        var request = HttpRequest.newBuilder(URI.create(url)).GET();
+        Optional.ofNullable(timeout(timeout)).ifPresent(request::timeout);
+        cached.filter(c -> !c.etag().isEmpty()).ifPresent(c -> request.header("If-None-Match", c.etag()));
+        cached.filter(c -> !c.lastModified().isEmpty()).ifPresent(c -> request.header("If-Modified-Since", c.lastModified()));
+        HttpResponse<String> response;
+        try {
+            response = this.downloadClient().send(request.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Manifest retrieval interrupted: " + url, e);
+        }
+        ManifestCache.Entry entry;
+        if (response.statusCode() == 304 && cached.isPresent()) {
+            entry = cached.get();
+            if (entry.installed()) {
+                return Optional.empty();
+            }
+        } else if (response.statusCode() == 200) {
+            entry = this.manifestCache.put(url, response.body(),
+                    response.headers().firstValue("ETag").orElse(""),
+                    response.headers().firstValue("Last-Modified").orElse(""));
+        } else {
+            throw new IOException("Unexpected status " + response.statusCode() + " for " + url);
         }
+        try (var reader = Files.newBufferedReader(entry.manifest(), StandardCharsets.UTF_8)) {
+            return Optional.of(Configuration.read(reader));
+        }
+    }
 
-        @Override
-        public final void updateDownloadProgress(float frac) {
-            this.listener.forEach(l -> l.downloadUpdated((int) (frac * 100)));
+    /**
+     * Flag the cached manifest as installed, if a manifest cache is used.
+     *
+     * @param url Manifest url.
+     * @throws IOException If the cache could not be updated.
+     */
+    private void markInstalled(String url) throws IOException {
+        if (this.manifestCache != null) {
+            this.manifestCache.markInstalled(url);
         }
+    }
 
-        @Override
-        public final void doneDownloads() {
-            this.listener.forEach(UpdateDownloadListener::downloadCompletedSuccessfully);
+    /**
+     * Convert a timeout.
+     *
+     * @param timeout Timeout in seconds, negative for no timeout.
+     * @return The timeout, null for no timeout.
+     */
+    private static Duration timeout(int timeout) {
+        return timeout < 0 ? null : Duration.ofSeconds(timeout);
+    }
+
+    /**
+     * Provide the http client used to download the files.
+     *
+     * @return The shared http client.
+     */
+    private synchronized HttpClient downloadClient() {
+        if (this.downloadClient == null) {
+            this.downloadClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .build();
         }
+        return this.downloadClient;
+    }
 
-        @Override
-        public final void startDownloadFile(FileMetadata file) {
-            this.listener.forEach(l -> l.startDownloadFile(file.getPath()));
+    /**
+     * Provide the files of the manifest requiring an update on this system.
+     *
+     * @param config Update manifest.
+     * @return The files to download.
+     * @throws IOException If a local file could not be read.
+     */
+    private static List<FileMetadata> filesToUpdate(Configuration config) throws IOException {
+        List<FileMetadata> result = new ArrayList<>();
+        for (var file : config.getFiles()) {
+            if (file.requiresUpdate()) {
+                result.add(file);
+            }
         }
+        return result;
+    }
 
-        @Override
-        public final void succeeded() {
-            this.listener.forEach(UpdateDownloadListener::completed);
+    /**
+     * Delete a directory and its content, if it exists.
+     *
+     * @param directory Directory to delete.
+     * @throws IOException If the directory could not be deleted.
+     */
+    private static void deleteDirectory(Path directory) throws IOException {
+        if (Files.notExists(directory)) {
+            return;
+        }
+        try (var content = Files.walk(directory)) {
+            for (var path : content.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
         }
     }
 }
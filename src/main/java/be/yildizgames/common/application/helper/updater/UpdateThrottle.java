@@ -0,0 +1,149 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.updater;
+
+import be.yildizgames.common.logging.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAmount;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Limit the update checks to one per delay for each url, and share a running check between concurrent callers.
+ * The last check times can be persisted in a file to be kept across restarts.
+ *
+ * @author Grégory Van den Borre
+ */
+final class UpdateThrottle {
+
+    /**
+     * Last successful check time by url.
+     */
+    private final Map<String, LocalDateTime> lastChecks = new ConcurrentHashMap<>();
+
+    /**
+     * Running checks by url.
+     */
+    private final Map<String, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * File where the check times are persisted, null if they are only kept in memory.
+     */
+    private final Path file;
+
+    /**
+     * Create a new throttle.
+     *
+     * @param file File where the check times are persisted, null to only keep them in memory.
+     */
+    UpdateThrottle(Path file) {
+        super();
+        this.file = file;
+        if (file != null && Files.exists(file)) {
+            var properties = new Properties();
+            try (var reader = Files.newBufferedReader(file)) {
+                properties.load(reader);
+                properties.forEach((k, v) -> this.lastChecks.put(k.toString(), LocalDateTime.parse(v.toString())));
+            } catch (IOException | DateTimeParseException e) {
+                Logger.getLogger(this).warning("Update throttle file {0} could not be read, ignored.", file);
+            }
+        }
+    }
+
+    /**
+     * Run a check if the delay since the last successful check for this url is elapsed.
+     * If a check is already running for this url, its result is awaited and returned instead of running a new one.
+     *
+     * @param url   Url to check.
+     * @param delay Minimum delay between two checks.
+     * @param check Check to run, it must call checked once successful.
+     * @return The check result, false if the check was not run.
+     */
+    boolean run(String url, TemporalAmount delay, BooleanSupplier check) {
+        if (this.isRecent(url, delay)) {
+            return false;
+        }
+        var flight = new CompletableFuture<Boolean>();
+        var running = this.inFlight.putIfAbsent(url, flight);
+        if (running != null) {
+            return running.join();
+        }
+        try {
+            // A check may have completed between the first test and the registration of this one.
+            var result = !this.isRecent(url, delay) && check.getAsBoolean();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.inFlight.remove(url, flight);
+        }
+    }
+
+    /**
+     * Check if the last successful check for an url is more recent than the delay.
+     *
+     * @param url   Url to check.
+     * @param delay Minimum delay between two checks.
+     * @return true if the check must not be run.
+     */
+    private boolean isRecent(String url, TemporalAmount delay) {
+        var last = this.lastChecks.get(url);
+        return last != null && !LocalDateTime.now().isAfter(last.plus(delay));
+    }
+
+    /**
+     * Record a successful check.
+     *
+     * @param url  Checked url.
+     * @param time Time of the check.
+     */
+    void checked(String url, LocalDateTime time) {
+        this.lastChecks.put(url, time);
+        if (this.file != null) {
+            this.persist();
+        }
+    }
+
+    /**
+     * Write the check times in the file, replaced atomically.
+     */
+    private synchronized void persist() {
+        var properties = new Properties();
+        this.lastChecks.forEach((k, v) -> properties.setProperty(k, v.toString()));
+        try {
+            var parent = this.file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            var temp = Files.createTempFile(parent, "throttle", ".tmp");
+            try (var writer = Files.newBufferedWriter(temp)) {
+                properties.store(writer, null);
+            }
+            Files.move(temp, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Logger.getLogger(this).warning("Update throttle file {0} could not be written: {1}", this.file, e.getMessage());
+        }
+    }
+}
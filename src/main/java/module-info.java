@@ -25,6 +25,9 @@ open module be.yildizgames.common.application {
     requires be.yildizgames.module.http;
     requires org.update4j;
     requires java.logging;
+    requires java.management;
+    requires java.net.http;
+    requires jdk.jfr;
 
     exports be.yildizgames.common.application;
     exports be.yildizgames.common.application.helper.network;
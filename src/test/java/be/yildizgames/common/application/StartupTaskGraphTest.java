@@ -0,0 +1,121 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class StartupTaskGraphTest {
+
+    @Nested
+    class Add {
+
+        @Test
+        void duplicate() {
+            StartupTaskGraph graph = new StartupTaskGraph();
+            graph.add("a", () -> {});
+            Assertions.assertThrows(IllegalArgumentException.class, () -> graph.add("a", () -> {}));
+        }
+
+        @Test
+        void dependsOnItself() {
+            StartupTaskGraph graph = new StartupTaskGraph();
+            Assertions.assertThrows(IllegalArgumentException.class, () -> graph.add("a", () -> {}, "a"));
+        }
+
+        @Test
+        void nullTask() {
+            StartupTaskGraph graph = new StartupTaskGraph();
+            Assertions.assertThrows(NullPointerException.class, () -> graph.add("a", null));
+        }
+    }
+
+    @Nested
+    class Run {
+
+        @Test
+        void dependenciesOrder() {
+            List<String> result = new CopyOnWriteArrayList<>();
+            StartupTaskGraph graph = new StartupTaskGraph();
+            graph.add("c", () -> result.add("c"), "b");
+            graph.add("b", () -> result.add("b"), "a");
+            graph.add("a", () -> result.add("a"));
+            graph.run(4);
+            Assertions.assertEquals(List.of("a", "b", "c"), result);
+        }
+
+        @Test
+        void independentInParallel() {
+            CountDownLatch latch = new CountDownLatch(2);
+            StartupTaskGraph graph = new StartupTaskGraph();
+            graph.add("a", () -> awaitOther(latch));
+            graph.add("b", () -> awaitOther(latch));
+            Assertions.assertDoesNotThrow(() -> graph.run(2));
+        }
+
+        @Test
+        void unknownDependency() {
+            StartupTaskGraph graph = new StartupTaskGraph();
+            graph.add("a", () -> {}, "b");
+            Assertions.assertThrows(IllegalArgumentException.class, () -> graph.run(1));
+        }
+
+        @Test
+        void cycle() {
+            StartupTaskGraph graph = new StartupTaskGraph();
+            graph.add("a", () -> {}, "b");
+            graph.add("b", () -> {}, "a");
+            Assertions.assertThrows(IllegalArgumentException.class, () -> graph.run(1));
+        }
+
+        @Test
+        void failure() {
+            List<String> result = new CopyOnWriteArrayList<>();
+            StartupTaskGraph graph = new StartupTaskGraph();
+            graph.add("a", () -> {
+                throw new IllegalArgumentException("error");
+            });
+            graph.add("b", () -> result.add("b"), "a");
+            IllegalStateException e = Assertions.assertThrows(IllegalStateException.class, () -> graph.run(2));
+            Assertions.assertInstanceOf(IllegalArgumentException.class, e.getCause());
+            Assertions.assertTrue(result.isEmpty());
+        }
+
+        @Test
+        void invalidParallelism() {
+            StartupTaskGraph graph = new StartupTaskGraph();
+            Assertions.assertThrows(IllegalArgumentException.class, () -> graph.run(0));
+        }
+    }
+
+    private static void awaitOther(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Tasks not run in parallel.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
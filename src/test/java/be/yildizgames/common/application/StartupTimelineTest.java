@@ -0,0 +1,123 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2021-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+class StartupTimelineTest {
+
+    @Nested
+    class Record {
+
+        @Test
+        void relativeToOrigin() {
+            StartupTimeline timeline = new StartupTimeline(1_000);
+            timeline.record("a", 3_000_000, 5_000_000);
+            StartupTimeline.Phase phase = timeline.phase("a").orElseThrow();
+            Assertions.assertEquals(Duration.ofNanos(2_999_000), phase.start());
+            Assertions.assertEquals(Duration.ofMillis(2), phase.duration());
+            Assertions.assertEquals(Duration.ofNanos(4_999_000), phase.end());
+        }
+
+        @Test
+        void sortedByStart() {
+            StartupTimeline timeline = new StartupTimeline(0);
+            timeline.record("late", 20, 30);
+            timeline.record("early", 10, 40);
+            Assertions.assertEquals(List.of("early", "late"), timeline.phases().stream().map(StartupTimeline.Phase::name).toList());
+            Assertions.assertEquals(Duration.ofNanos(40), timeline.total());
+        }
+
+        @Test
+        void notRecorded() {
+            StartupTimeline timeline = new StartupTimeline();
+            Assertions.assertTrue(timeline.phase("a").isEmpty());
+            Assertions.assertEquals(Duration.ZERO, timeline.total());
+        }
+    }
+
+    @Nested
+    class Measure {
+
+        @Test
+        void failure() {
+            StartupTimeline timeline = new StartupTimeline();
+            Assertions.assertThrows(IllegalStateException.class, () -> timeline.measure("a", () -> {
+                throw new IllegalStateException();
+            }));
+            Assertions.assertTrue(timeline.phase("a").isPresent());
+        }
+
+        @Test
+        void graphTasks() {
+            StartupTimeline timeline = new StartupTimeline();
+            StartupTaskGraph graph = new StartupTaskGraph();
+            graph.add("a", () -> {});
+            graph.add("b", () -> {}, "a");
+            graph.run(2, timeline);
+            Assertions.assertFalse(timeline.phase("b").orElseThrow().start().minus(timeline.phase("a").orElseThrow().end()).isNegative());
+        }
+
+        @Test
+        void eventCoversPhase(@TempDir Path dir) throws Exception {
+            StartupTimeline timeline = new StartupTimeline();
+            Path file = dir.resolve("startup.jfr");
+            try (var recording = new Recording()) {
+                recording.enable("be.yildizgames.application.StartupPhase");
+                recording.start();
+                timeline.measure("a", () -> {
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                recording.stop();
+                recording.dump(file);
+                List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+                Assertions.assertEquals(1, events.size());
+                Assertions.assertEquals("a", events.getFirst().getString("phase"));
+                Assertions.assertTrue(events.getFirst().getDuration().compareTo(Duration.ofMillis(20)) >= 0);
+            }
+        }
+    }
+
+    @Nested
+    class Report {
+
+        @Test
+        void containsPhases() {
+            StartupTimeline timeline = new StartupTimeline(0);
+            timeline.record("banner", 0, 2_000_000);
+            timeline.record("update.check", 1_000_000, 5_000_000);
+            String report = timeline.report();
+            Assertions.assertTrue(report.startsWith("Startup completed in 5 ms"));
+            Assertions.assertTrue(report.contains("banner"));
+            Assertions.assertTrue(report.contains("update.check"));
+        }
+    }
+}
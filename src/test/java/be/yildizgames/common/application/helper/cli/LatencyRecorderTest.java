@@ -0,0 +1,147 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2021-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.cli;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+class LatencyRecorderTest {
+
+    @Nested
+    class Histogram {
+
+        @Test
+        void exactBelow64() {
+            for (long i = 0; i < 64; i++) {
+                Assertions.assertEquals(i, LatencyHistogram.highestValue(LatencyHistogram.index(i)));
+            }
+        }
+
+        @Test
+        void precision() {
+            for (long v = 64; v > 0 && v < Long.MAX_VALUE / 3; v = v * 3 + 7) {
+                long highest = LatencyHistogram.highestValue(LatencyHistogram.index(v));
+                Assertions.assertTrue(highest >= v);
+                Assertions.assertTrue(highest - v <= v / 32, "value " + v + " bucket " + highest);
+            }
+        }
+
+        @Test
+        void maxValue() {
+            Assertions.assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.index(Long.MAX_VALUE));
+            Assertions.assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValue(LatencyHistogram.BUCKETS - 1));
+        }
+    }
+
+    @Nested
+    class Summaries {
+
+        @Test
+        void percentiles() {
+            LatencyRecorder recorder = new LatencyRecorder();
+            LatencyRecorder.Section section = recorder.section("a");
+            for (long i = 1; i <= 1000; i++) {
+                section.record(i * 1000);
+            }
+            LatencySummary summary = recorder.summaries().getFirst();
+            Assertions.assertEquals(1000, summary.count());
+            assertClose(500_000, summary.p50());
+            assertClose(990_000, summary.p99());
+            assertClose(999_000, summary.p999());
+            assertClose(1_000_000, summary.max());
+        }
+
+        @Test
+        void empty() {
+            LatencyRecorder recorder = new LatencyRecorder();
+            recorder.section("a");
+            LatencySummary summary = recorder.summaries().getFirst();
+            Assertions.assertEquals(0, summary.count());
+            Assertions.assertEquals(Duration.ZERO, summary.max());
+        }
+
+        @Test
+        void sameSection() {
+            LatencyRecorder recorder = new LatencyRecorder();
+            Assertions.assertSame(recorder.section("a"), recorder.section("a"));
+        }
+
+        @Test
+        void sortedByName() {
+            LatencyRecorder recorder = new LatencyRecorder();
+            recorder.section("b");
+            recorder.section("a");
+            Assertions.assertEquals(List.of("a", "b"), recorder.summaries().stream().map(LatencySummary::section).toList());
+        }
+
+        @Test
+        void reset() {
+            LatencyRecorder recorder = new LatencyRecorder();
+            recorder.section("a").record(10);
+            Assertions.assertEquals(1, recorder.summariesAndReset().getFirst().count());
+            Assertions.assertEquals(0, recorder.summaries().getFirst().count());
+        }
+
+        @Test
+        void severalThreads() throws InterruptedException {
+            LatencyRecorder recorder = new LatencyRecorder();
+            LatencyRecorder.Section section = recorder.section("a");
+            Thread[] threads = new Thread[8];
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = Thread.ofPlatform().start(() -> {
+                    for (int j = 0; j < 10_000; j++) {
+                        section.stop(section.start());
+                    }
+                });
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            Assertions.assertEquals(80_000, recorder.summaries().getFirst().count());
+        }
+
+        private void assertClose(long expected, Duration actual) {
+            Assertions.assertTrue(Math.abs(actual.toNanos() - expected) <= expected / 32, "expected " + expected + " was " + actual.toNanos());
+        }
+    }
+
+    @Nested
+    class RecordingMode {
+
+        @Test
+        void recordedBySection() {
+            LatencyRecorder recorder = new LatencyRecorder();
+            PerformanceChecker checker = new PerformanceChecker(recorder);
+            checker.displayTimeElapsed("a");
+            checker.displayTimeElapsed("a");
+            checker.displayTimeElapsed(null);
+            Assertions.assertEquals(2, recorder.summaries().stream().filter(s -> s.section().equals("a")).findFirst().orElseThrow().count());
+            Assertions.assertEquals(1, recorder.summaries().stream().filter(s -> s.section().isEmpty()).findFirst().orElseThrow().count());
+        }
+
+        @Test
+        void periodicDump() {
+            try (LatencyRecorder recorder = new LatencyRecorder()) {
+                Assertions.assertThrows(IllegalArgumentException.class, () -> recorder.withPeriodicDump(Duration.ZERO));
+                Assertions.assertSame(recorder, recorder.withPeriodicDump(Duration.ofMinutes(1)));
+            }
+        }
+    }
+}
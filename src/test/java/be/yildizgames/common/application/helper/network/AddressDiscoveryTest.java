@@ -0,0 +1,104 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2021-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.network;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+class AddressDiscoveryTest {
+
+    @Nested
+    class Addresses {
+
+        @Test
+        void ranked() throws UnknownHostException {
+            var linkLocal = InetAddress.getByName("fe80::1");
+            var global = InetAddress.getByName("2001:db8::1");
+            var publicV4 = InetAddress.getByName("203.0.113.5");
+            var privateV4 = InetAddress.getByName("192.168.1.10");
+            var discovery = new AddressDiscovery(Duration.ofMinutes(1), () -> List.of(linkLocal, global, publicV4, privateV4));
+            Assertions.assertEquals(List.of(privateV4, publicV4, global, linkLocal), discovery.addresses());
+        }
+
+        @Test
+        void cached() throws UnknownHostException {
+            var first = InetAddress.getByName("10.0.0.1");
+            var source = new AtomicReference<>(List.of(first));
+            var discovery = new AddressDiscovery(Duration.ofMinutes(1), source::get);
+            discovery.addresses();
+            source.set(List.of(InetAddress.getByName("10.0.0.2")));
+            Assertions.assertEquals(List.of(first), discovery.addresses());
+        }
+
+        @Test
+        void refreshedInBackground() throws Exception {
+            var second = InetAddress.getByName("10.0.0.2");
+            var source = new AtomicReference<>(List.of(InetAddress.getByName("10.0.0.1")));
+            var discovery = new AddressDiscovery(Duration.ofNanos(1), source::get);
+            discovery.addresses();
+            source.set(List.of(second));
+            long end = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (!discovery.addresses().equals(List.of(second)) && System.nanoTime() < end) {
+                Thread.sleep(10);
+            }
+            Assertions.assertEquals(List.of(second), discovery.addresses());
+        }
+
+        @Test
+        void refresh() throws UnknownHostException {
+            var second = InetAddress.getByName("10.0.0.2");
+            var source = new AtomicReference<>(List.of(InetAddress.getByName("10.0.0.1")));
+            var discovery = new AddressDiscovery(Duration.ofMinutes(1), source::get);
+            discovery.addresses();
+            source.set(List.of(second));
+            Assertions.assertEquals(List.of(second), discovery.refresh());
+            Assertions.assertEquals(List.of(second), discovery.addresses());
+        }
+    }
+
+    @Nested
+    class IsVirtual {
+
+        @Test
+        void bridge() {
+            Assertions.assertTrue(AddressDiscovery.isVirtual("docker0", false));
+            Assertions.assertTrue(AddressDiscovery.isVirtual("veth12ab", false));
+            Assertions.assertTrue(AddressDiscovery.isVirtual("eth0:1", true));
+        }
+
+        @Test
+        void physical() {
+            Assertions.assertFalse(AddressDiscovery.isVirtual("eth0", false));
+            Assertions.assertFalse(AddressDiscovery.isVirtual("wlan0", false));
+        }
+    }
+
+    @Nested
+    class Rank {
+
+        @Test
+        void uniqueLocalAfterGlobal() throws UnknownHostException {
+            Assertions.assertTrue(AddressDiscovery.rank(InetAddress.getByName("2001:db8::1")) < AddressDiscovery.rank(InetAddress.getByName("fd00::1")));
+        }
+    }
+}
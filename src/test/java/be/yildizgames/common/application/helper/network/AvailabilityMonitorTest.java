@@ -0,0 +1,96 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.network;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class AvailabilityMonitorTest {
+
+    @Nested
+    class Constructor {
+
+        @Test
+        void invalidInterval() {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> new AvailabilityMonitor(Duration.ZERO, Duration.ofSeconds(1)));
+        }
+
+        @Test
+        void invalidTimeout() {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> new AvailabilityMonitor(Duration.ofSeconds(1), Duration.ofSeconds(-1)));
+        }
+    }
+
+    @Nested
+    class Watch {
+
+        @Test
+        void severalEndpoints() throws IOException, InterruptedException {
+            try (var server = new ServerSocket(0); var monitor = new AvailabilityMonitor(Duration.ofMinutes(1), Duration.ofSeconds(5))) {
+                int closed = closedPort();
+                ServerAccessConfiguration online = () -> "http://localhost:" + server.getLocalPort();
+                ServerAccessConfiguration offline = () -> "http://localhost:" + closed;
+                Map<ServerAccessConfiguration, Boolean> notified = new ConcurrentHashMap<>();
+                CountDownLatch latch = new CountDownLatch(2);
+                monitor.subscribe(s -> {
+                    notified.put(s.configuration(), s.online());
+                    latch.countDown();
+                });
+                AvailabilityChecker onlineChecker = monitor.watch(online);
+                AvailabilityChecker offlineChecker = monitor.watch(offline);
+                Assertions.assertTrue(latch.await(10, TimeUnit.SECONDS));
+                Assertions.assertEquals(Map.of(online, true, offline, false), notified);
+                Assertions.assertTrue(onlineChecker.isOnline());
+                Assertions.assertFalse(offlineChecker.isOnline());
+                Assertions.assertFalse(monitor.status(online).orElseThrow().latency().isNegative());
+                Assertions.assertEquals(2, monitor.statuses().size());
+            }
+        }
+
+        @Test
+        void invalidUrl() {
+            try (var monitor = new AvailabilityMonitor(Duration.ofMinutes(1), Duration.ofSeconds(5))) {
+                Assertions.assertThrows(IllegalArgumentException.class, () -> monitor.watch(() -> "invalid"));
+            }
+        }
+
+        @Test
+        void unwatch() throws IOException {
+            try (var monitor = new AvailabilityMonitor(Duration.ofMinutes(1), Duration.ofSeconds(5))) {
+                int closed = closedPort();
+                ServerAccessConfiguration offline = () -> "http://localhost:" + closed;
+                monitor.watch(offline);
+                monitor.unwatch(offline);
+                Assertions.assertTrue(monitor.status(offline).isEmpty());
+            }
+        }
+    }
+
+    private static int closedPort() throws IOException {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
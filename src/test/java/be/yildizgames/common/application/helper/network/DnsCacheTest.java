@@ -0,0 +1,55 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2021-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.network;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+class DnsCacheTest {
+
+    @Nested
+    class Constructor {
+
+        @Test
+        void invalidMaxEntries() {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> new DnsCache(Duration.ofMinutes(1), Duration.ofSeconds(1), 0));
+        }
+    }
+
+    @Nested
+    class Resolve {
+
+        @Test
+        void bounded() {
+            DnsCache cache = new DnsCache(Duration.ofMinutes(1), Duration.ofSeconds(1), 2);
+            Assertions.assertTrue(cache.resolve("127.0.0.1").isPresent());
+            Assertions.assertTrue(cache.resolve("127.0.0.2").isPresent());
+            Assertions.assertTrue(cache.resolve("127.0.0.3").isPresent());
+            Assertions.assertEquals(2, cache.size());
+        }
+
+        @Test
+        void sameHostNotEvicted() {
+            DnsCache cache = new DnsCache(Duration.ofMinutes(1), Duration.ofSeconds(1), 1);
+            cache.resolve("127.0.0.1");
+            cache.resolve("127.0.0.1");
+            Assertions.assertEquals(1, cache.size());
+        }
+    }
+}
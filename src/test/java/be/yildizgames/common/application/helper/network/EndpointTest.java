@@ -0,0 +1,109 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2021-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.network;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+class EndpointTest {
+
+    @Nested
+    class Of {
+
+        @Test
+        void http() {
+            Endpoint endpoint = Endpoint.of(() -> "http://localhost:8080/");
+            Assertions.assertEquals("localhost", endpoint.host());
+            Assertions.assertEquals(8080, endpoint.port());
+            Assertions.assertTrue(endpoint.isHttp());
+        }
+
+        @Test
+        void defaultPorts() {
+            Assertions.assertEquals(80, Endpoint.of(() -> "http://example.com").port());
+            Assertions.assertEquals(443, Endpoint.of(() -> "https://example.com/status").port());
+        }
+
+        @Test
+        void ipv6() {
+            Endpoint endpoint = Endpoint.of(() -> "https://[::1]:8443");
+            Assertions.assertEquals("::1", endpoint.host());
+            Assertions.assertEquals(8443, endpoint.port());
+        }
+
+        @Test
+        void withoutScheme() {
+            Endpoint endpoint = Endpoint.of(() -> "localhost:1234");
+            Assertions.assertEquals("localhost", endpoint.host());
+            Assertions.assertEquals(1234, endpoint.port());
+            Assertions.assertFalse(endpoint.isHttp());
+        }
+
+        @Test
+        void noPort() {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> Endpoint.of(() -> "localhost"));
+        }
+
+        @Test
+        void hostWithUnderscore() {
+            var endpoint = Endpoint.of(() -> "game_server:8080");
+            Assertions.assertEquals("game_server", endpoint.host());
+            Assertions.assertEquals(8080, endpoint.port());
+        }
+
+        @Test
+        void httpHostWithUnderscore() {
+            var endpoint = Endpoint.of(() -> "http://my_host");
+            Assertions.assertEquals("my_host", endpoint.host());
+            Assertions.assertEquals(80, endpoint.port());
+        }
+
+        @Test
+        void hostWithUnderscoreInvalidPort() {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> Endpoint.of(() -> "game_server:99999"));
+        }
+
+        @Test
+        void nullUrl() {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> Endpoint.of(() -> null));
+        }
+
+        @Test
+        void invalid() {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> Endpoint.of(() -> "http://local host:80"));
+        }
+    }
+
+    @Nested
+    class Resolve {
+
+        @Test
+        void literal() {
+            var address = Endpoint.of(() -> "http://127.0.0.1:80").resolve(new DnsCache(Duration.ofMinutes(1), Duration.ofSeconds(1)));
+            Assertions.assertFalse(address.isUnresolved());
+            Assertions.assertEquals(80, address.getPort());
+        }
+
+        @Test
+        void unknownHost() {
+            var address = Endpoint.of(() -> "http://unknown.invalid:80").resolve(new DnsCache(Duration.ofMinutes(1), Duration.ofSeconds(1)));
+            Assertions.assertTrue(address.isUnresolved());
+        }
+    }
+}
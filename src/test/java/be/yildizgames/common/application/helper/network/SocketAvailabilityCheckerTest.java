@@ -0,0 +1,185 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.network;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+class SocketAvailabilityCheckerTest {
+
+    @Nested
+    class IsOnline {
+
+        @Test
+        void online() throws IOException {
+            try (var server = new ServerSocket(0)) {
+                SocketAvailabilityChecker checker = new SocketAvailabilityChecker(() -> "http://localhost:" + server.getLocalPort());
+                Assertions.assertTrue(checker.isOnline());
+            }
+        }
+
+        @Test
+        void offline() throws IOException {
+            int port = closedPort();
+            SocketAvailabilityChecker checker = new SocketAvailabilityChecker(() -> "http://localhost:" + port);
+            Assertions.assertTrue(checker.isOffLine());
+        }
+
+        @Test
+        void singleCheckForConcurrentCallers() throws Exception {
+            try (var server = new ServerSocket(0); var executor = Executors.newFixedThreadPool(16)) {
+                SocketAvailabilityChecker checker = new SocketAvailabilityChecker(() -> "http://localhost:" + server.getLocalPort());
+                var start = new CountDownLatch(1);
+                List<Future<Boolean>> results = new ArrayList<>();
+                for (var i = 0; i < 16; i++) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        return checker.isOnline();
+                    }));
+                }
+                start.countDown();
+                var online = 0;
+                for (var result : results) {
+                    online += result.get(10, TimeUnit.SECONDS) ? 1 : 0;
+                }
+                Assertions.assertTrue(online >= 1);
+                Assertions.assertEquals(1, acceptAll(server));
+            }
+        }
+    }
+
+    @Nested
+    class HttpHead {
+
+        @Test
+        void online() throws Exception {
+            try (var server = new ServerSocket(0)) {
+                var response = CompletableFuture.runAsync(() -> {
+                    try (var socket = server.accept()) {
+                        socket.getInputStream().read(new byte[1024]);
+                        socket.getOutputStream().write("HTTP/1.1 204 No Content\r\nConnection: close\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                SocketAvailabilityChecker checker = new SocketAvailabilityChecker(() -> "http://localhost:" + server.getLocalPort() + "/", ProbeStrategy.HTTP_HEAD);
+                Assertions.assertTrue(checker.isOnline());
+                response.get(10, TimeUnit.SECONDS);
+            }
+        }
+
+        @Test
+        void offline() throws IOException {
+            int port = closedPort();
+            SocketAvailabilityChecker checker = new SocketAvailabilityChecker(() -> "http://localhost:" + port, ProbeStrategy.HTTP_HEAD);
+            Assertions.assertTrue(checker.isOffLine());
+        }
+    }
+
+    @Nested
+    class BackgroundRefresh {
+
+        @Test
+        void notifyTransition() throws Exception {
+            try (var server = new ServerSocket(0)) {
+                SocketAvailabilityChecker checker = new SocketAvailabilityChecker(() -> "http://localhost:" + server.getLocalPort());
+                CompletableFuture<Boolean> notified = new CompletableFuture<>();
+                checker.subscribe(notified::complete).withBackgroundRefresh();
+                try {
+                    Assertions.assertTrue(notified.get(10, TimeUnit.SECONDS));
+                    Assertions.assertTrue(checker.isOnline());
+                } finally {
+                    checker.stopBackgroundRefresh();
+                }
+            }
+        }
+
+        @Test
+        void offlineNotified() throws Exception {
+            int port = closedPort();
+            SocketAvailabilityChecker checker = new SocketAvailabilityChecker(() -> "http://localhost:" + port);
+            CompletableFuture<Boolean> notified = new CompletableFuture<>();
+            checker.subscribe(notified::complete);
+            checker.withBackgroundRefresh();
+            try {
+                Assertions.assertFalse(notified.get(10, TimeUnit.SECONDS));
+                Assertions.assertTrue(checker.isOffLine());
+            } finally {
+                checker.stopBackgroundRefresh();
+            }
+        }
+
+        @Test
+        void stopBeforeFirstCheck() throws IOException {
+            int port = closedPort();
+            SocketAvailabilityChecker checker = new SocketAvailabilityChecker(() -> "http://localhost:" + port);
+            checker.withBackgroundRefresh();
+            checker.stopBackgroundRefresh();
+            Assertions.assertFalse(checker.isChecking());
+        }
+
+        @Test
+        void stopDuringCheck() throws Exception {
+            try (var server = new ServerSocket(0)) {
+                server.setSoTimeout(10_000);
+                SocketAvailabilityChecker checker = new SocketAvailabilityChecker(() -> "http://localhost:" + server.getLocalPort() + "/", ProbeStrategy.HTTP_HEAD);
+                CompletableFuture<Boolean> notified = new CompletableFuture<>();
+                checker.subscribe(notified::complete).withBackgroundRefresh();
+                var connection = server.accept();
+                try {
+                    checker.stopBackgroundRefresh();
+                    Assertions.assertThrows(TimeoutException.class, () -> notified.get(500, TimeUnit.MILLISECONDS));
+                } finally {
+                    connection.close();
+                }
+            }
+        }
+    }
+
+    private static int acceptAll(ServerSocket server) throws IOException {
+        server.setSoTimeout(500);
+        var accepted = 0;
+        while (true) {
+            try {
+                server.accept().close();
+                accepted++;
+            } catch (SocketTimeoutException e) {
+                return accepted;
+            }
+        }
+    }
+
+    private static int closedPort() throws IOException {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.restarter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.StandardSocketOptions;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+class HandoffRestarterTest {
+
+    @Nested
+    class Constructor {
+
+        @Test
+        void nullDrain() {
+            Assertions.assertThrows(NullPointerException.class, () -> new HandoffRestarter(null));
+        }
+
+        @Test
+        void invalidTimeout() {
+            HandoffRestarter restarter = new HandoffRestarter(() -> {});
+            Assertions.assertThrows(IllegalArgumentException.class, () -> restarter.withReadyTimeout(Duration.ZERO));
+        }
+    }
+
+    @Nested
+    class SignalReady {
+
+        @Test
+        void notStartedByHandoff() {
+            Assertions.assertDoesNotThrow(() -> HandoffRestarter.signalReady(Map.of()));
+        }
+
+        @Test
+        void tokenFromEnvironment() throws IOException {
+            try (var server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+                HandoffRestarter.signalReady(Map.of(
+                        HandoffRestarter.PORT_VARIABLE, String.valueOf(server.getLocalPort()),
+                        HandoffRestarter.TOKEN_VARIABLE, "0123abcd"));
+                try (var socket = server.accept()) {
+                    var reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                    Assertions.assertEquals("0123abcd", reader.readLine());
+                }
+            }
+        }
+    }
+
+    @Nested
+    class BindReusable {
+
+        @Test
+        void twiceOnSamePort() throws IOException {
+            try (var first = HandoffRestarter.bindReusable(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+                Assumptions.assumeTrue(first.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT));
+                try (var second = HandoffRestarter.bindReusable((InetSocketAddress) first.getLocalAddress())) {
+                    Assertions.assertEquals(first.getLocalAddress(), second.getLocalAddress());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.restarter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+class JvmCommandLineTest {
+
+    @Nested
+    class Parse {
+
+        @Test
+        void jar() {
+            JvmCommandLine command = JvmCommandLine.parse("java", List.of("-Xmx2g", "-XX:+UseZGC", "-jar", "app.jar", "arg"));
+            Assertions.assertEquals(List.of("-Xmx2g", "-XX:+UseZGC"), command.jvmOptions());
+            Assertions.assertEquals(List.of("-jar", "app.jar", "arg"), command.application());
+            Assertions.assertEquals(Path.of("app.jar"), command.jar().orElseThrow());
+        }
+
+        @Test
+        void mainClassWithClasspath() {
+            JvmCommandLine command = JvmCommandLine.parse("java", List.of("-cp", "lib/*", "-Dkey=value", "be.Main", "-arg"));
+            Assertions.assertEquals(List.of("-cp", "lib/*", "-Dkey=value"), command.jvmOptions());
+            Assertions.assertEquals(List.of("be.Main", "-arg"), command.application());
+            Assertions.assertTrue(command.jar().isEmpty());
+        }
+
+        @Test
+        void module() {
+            JvmCommandLine command = JvmCommandLine.parse("java", List.of("-p", "mods", "--add-modules", "x", "-m", "app/be.Main"));
+            Assertions.assertEquals(List.of("-p", "mods", "--add-modules", "x"), command.jvmOptions());
+            Assertions.assertEquals(List.of("-m", "app/be.Main"), command.application());
+        }
+
+        @Test
+        void argumentFileWithOptions(@TempDir Path folder) throws IOException {
+            Path file = Files.writeString(folder.resolve("options"), "-Xmx1g\n# comment\n-cp \"lib dir/*\"\n");
+            JvmCommandLine command = JvmCommandLine.parse("java", List.of("@" + file, "be.Main", "@arg"));
+            Assertions.assertEquals(List.of("-Xmx1g", "-cp", "lib dir/*"), command.jvmOptions());
+            Assertions.assertEquals(List.of("be.Main", "@arg"), command.application());
+        }
+
+        @Test
+        void argumentFileWithApplication(@TempDir Path folder) throws IOException {
+            Path file = Files.writeString(folder.resolve("all"), "-Xmx1g -jar 'my app.jar' x");
+            JvmCommandLine command = JvmCommandLine.parse("java", List.of("@" + file)).withJvmOptions(List.of("-Xmx4g"));
+            Assertions.assertEquals(List.of("java", "-Xmx1g", "-Xmx4g", "-jar", "my app.jar", "x"), command.toCommand());
+        }
+
+        @Test
+        void argumentFileDisabled() {
+            JvmCommandLine command = JvmCommandLine.parse("java", List.of("--disable-@files", "@be.Main"));
+            Assertions.assertEquals(List.of("@be.Main"), command.application());
+        }
+
+        @Test
+        void argumentFileNotFound(@TempDir Path folder) {
+            Assertions.assertThrows(IllegalStateException.class, () -> JvmCommandLine.parse("java", List.of("@" + folder.resolve("missing"), "be.Main")));
+        }
+
+        @Test
+        void argumentFileEscapes(@TempDir Path folder) throws IOException {
+            Path file = Files.writeString(folder.resolve("escapes"), "'a\\tb' \"c\\\n   d\" C:\\path");
+            Assertions.assertEquals(List.of("a\tb", "cd", "C:\\path"), JvmCommandLine.readArgumentFile(file));
+        }
+
+        @Test
+        void noApplication() {
+            Assertions.assertThrows(IllegalStateException.class, () -> JvmCommandLine.parse("java", List.of("-version")));
+        }
+    }
+
+    @Nested
+    class Options {
+
+        @Test
+        void addedAfterCurrentOnes() {
+            JvmCommandLine command = JvmCommandLine.parse("java", List.of("-Xmx1g", "-jar", "app.jar"))
+                    .withJvmOptions(List.of("-Xmx4g"));
+            Assertions.assertEquals(List.of("java", "-Xmx1g", "-Xmx4g", "-jar", "app.jar"), command.toCommand());
+        }
+
+        @Test
+        void removed() {
+            JvmCommandLine command = JvmCommandLine.parse("java", List.of("-XX:SharedArchiveFile=a.jsa", "-Xmx1g", "-jar", "app.jar"));
+            Assertions.assertEquals(List.of("-Xmx1g"), ClassDataSharing.withoutOptions(command).jvmOptions());
+        }
+    }
+
+    @Nested
+    class Current {
+
+        @Test
+        void happyFlow() {
+            JvmCommandLine command = JvmCommandLine.current();
+            Assertions.assertFalse(command.application().isEmpty());
+            Assertions.assertTrue(command.java().contains("java"));
+        }
+    }
+}
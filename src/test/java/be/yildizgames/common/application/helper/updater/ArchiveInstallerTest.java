@@ -0,0 +1,97 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.updater;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.update4j.Archive;
+import org.update4j.Configuration;
+import org.update4j.FileMetadata;
+import org.update4j.UpdateOptions;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.UnaryOperator;
+
+class ArchiveInstallerTest {
+
+    @Nested
+    class Install {
+
+        @Test
+        void fromArchive(@TempDir Path dir) throws IOException {
+            Path archive = archive(dir, "content");
+            ArchiveInstaller.install(archive, null, UnaryOperator.identity());
+            Assertions.assertEquals("content", Files.readString(dir.resolve("app").resolve("a.txt")));
+            Assertions.assertTrue(Files.notExists(archive));
+            Assertions.assertTrue(Files.notExists(dir.resolve("app").resolve("a.txt.update")));
+        }
+
+        @Test
+        void replaceExisting(@TempDir Path dir) throws IOException {
+            Path archive = archive(dir, "content");
+            Files.createDirectories(dir.resolve("app"));
+            Files.writeString(dir.resolve("app").resolve("a.txt"), "old");
+            ArchiveInstaller.install(archive, null, UnaryOperator.identity());
+            Assertions.assertEquals("content", Files.readString(dir.resolve("app").resolve("a.txt")));
+            Assertions.assertTrue(Files.notExists(dir.resolve("app").resolve("a.txt.previous")));
+        }
+
+        @Test
+        void lockedTarget(@TempDir Path dir) throws IOException {
+            Path archive = archive(dir, "content");
+            Path target = Files.writeString(Files.createDirectories(dir.resolve("app")).resolve("a.txt"), "old");
+            try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE); FileLock lock = channel.lock()) {
+                Assertions.assertTrue(lock.isValid());
+                Assertions.assertThrows(IOException.class, () -> ArchiveInstaller.install(archive, null, UnaryOperator.identity()));
+            }
+            Assertions.assertEquals("old", Files.readString(target));
+            Assertions.assertTrue(Files.exists(archive));
+            Assertions.assertTrue(Files.notExists(dir.resolve("app").resolve("a.txt.update")));
+        }
+
+        @Test
+        void fromDownloadDirectory(@TempDir Path dir) throws IOException {
+            Path archive = archive(dir, "content");
+            FileMetadata file = Archive.read(archive).getFiles().getFirst();
+            Path downloads = Files.createDirectories(dir.resolve("downloads"));
+            Files.writeString(downloads.resolve(FileDownloader.localName(file)), "CONTENT");
+            ArchiveInstaller.install(archive, downloads, UnaryOperator.identity());
+            Assertions.assertEquals("CONTENT", Files.readString(dir.resolve("app").resolve("a.txt")));
+        }
+
+        @Test
+        void missingArchive(@TempDir Path dir) {
+            Assertions.assertThrows(IOException.class, () -> ArchiveInstaller.install(dir.resolve("none"), null, UnaryOperator.identity()));
+        }
+    }
+
+    private static Path archive(Path dir, String content) throws IOException {
+        Path source = Files.writeString(Files.createDirectories(dir.resolve("source")).resolve("a.txt"), content);
+        Configuration config = Configuration.builder()
+                .file(FileMetadata.readFrom(source).uri(source.toUri()).path(dir.resolve("app").resolve("a.txt")))
+                .build();
+        Path archive = dir.resolve("update.zip");
+        Assertions.assertNull(config.update(UpdateOptions.archive(archive)).getException());
+        return archive;
+    }
+}
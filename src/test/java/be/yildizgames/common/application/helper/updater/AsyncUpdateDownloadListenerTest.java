@@ -0,0 +1,152 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.updater;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+class AsyncUpdateDownloadListenerTest {
+
+    @Nested
+    class Constructor {
+
+        @Test
+        void nullDelegate() {
+            Assertions.assertThrows(NullPointerException.class, () -> new AsyncUpdateDownloadListener(null));
+        }
+
+        @Test
+        void invalidFrameRate() {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> new AsyncUpdateDownloadListener(new Recorder(), 0, 10));
+        }
+
+        @Test
+        void invalidCapacity() {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> new AsyncUpdateDownloadListener(new Recorder(), 10, 0));
+        }
+    }
+
+    @Nested
+    class Dispatch {
+
+        @Test
+        void progressCoalesced() throws InterruptedException {
+            Recorder recorder = new Recorder();
+            recorder.block = new CountDownLatch(1);
+            Path file = Path.of("a");
+            try (AsyncUpdateDownloadListener listener = new AsyncUpdateDownloadListener(recorder, 1, 10)) {
+                listener.startDownloadFile(file);
+                for (int i = 0; i <= 100; i++) {
+                    listener.fileUpdated(file, i);
+                }
+                listener.fileCompletedSuccessfully(file);
+                recorder.block.countDown();
+            }
+            Assertions.assertEquals(List.of("start a", "file a 100", "completed a"), recorder.events);
+        }
+
+        @Test
+        void notDeliveredOnCallerThread() {
+            Recorder recorder = new Recorder();
+            try (AsyncUpdateDownloadListener listener = new AsyncUpdateDownloadListener(recorder)) {
+                listener.startDownloads();
+            }
+            Assertions.assertNotEquals(Thread.currentThread(), recorder.thread);
+        }
+
+        @Test
+        void failingListener() {
+            Recorder recorder = new Recorder() {
+                @Override
+                public void startDownloads() {
+                    throw new IllegalStateException("failure");
+                }
+            };
+            try (AsyncUpdateDownloadListener listener = new AsyncUpdateDownloadListener(recorder)) {
+                listener.startDownloads();
+                listener.downloadUpdated(50);
+                listener.completed();
+            }
+            Assertions.assertEquals(List.of("download 50", "completed"), recorder.events);
+        }
+
+        @Test
+        void ignoredAfterClose() {
+            Recorder recorder = new Recorder();
+            AsyncUpdateDownloadListener listener = new AsyncUpdateDownloadListener(recorder);
+            listener.close();
+            listener.completed();
+            listener.close();
+            Assertions.assertTrue(recorder.events.isEmpty());
+        }
+    }
+
+    private static class Recorder implements UpdateDownloadListener {
+
+        private final List<String> events = new ArrayList<>();
+
+        private CountDownLatch block;
+
+        private Thread thread;
+
+        @Override
+        public void startDownloadFile(Path file) {
+            this.await();
+            this.events.add("start " + file);
+        }
+
+        @Override
+        public void fileUpdated(Path file, int percent) {
+            this.events.add("file " + file + " " + percent);
+        }
+
+        @Override
+        public void fileCompletedSuccessfully(Path file) {
+            this.events.add("completed " + file);
+        }
+
+        @Override
+        public void downloadUpdated(int percent) {
+            this.events.add("download " + percent);
+        }
+
+        @Override
+        public void startDownloads() {
+            this.thread = Thread.currentThread();
+        }
+
+        @Override
+        public void completed() {
+            this.events.add("completed");
+        }
+
+        private void await() {
+            if (this.block != null) {
+                try {
+                    this.block.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
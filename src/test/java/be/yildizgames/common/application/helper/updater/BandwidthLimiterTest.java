@@ -0,0 +1,65 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.updater;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+class BandwidthLimiterTest {
+
+    @Nested
+    class Constructor {
+
+        @Test
+        void invalidLimit() {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> new BandwidthLimiter(0, () -> 0));
+        }
+    }
+
+    @Nested
+    class Acquire {
+
+        @Test
+        void burstNotLimited() throws InterruptedIOException {
+            BandwidthLimiter limiter = new BandwidthLimiter(1_000_000, () -> 0);
+            long start = System.nanoTime();
+            limiter.acquire(500_000);
+            Assertions.assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(200));
+        }
+
+        @Test
+        void limited() throws InterruptedIOException {
+            BandwidthLimiter limiter = new BandwidthLimiter(10_000, () -> 0);
+            limiter.acquire(10_000);
+            long start = System.nanoTime();
+            limiter.acquire(2_000);
+            Assertions.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(150));
+        }
+
+        @Test
+        void adaptiveBacksOff() throws InterruptedIOException {
+            BandwidthLimiter limiter = new BandwidthLimiter(100_000, () -> 1);
+            limiter.acquire(10_000);
+            long start = System.nanoTime();
+            limiter.acquire(2_000);
+            Assertions.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(150));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.updater;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+class ContentStoreTest {
+
+    @Nested
+    class Constructor {
+
+        @Test
+        void negativeSize() {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> new ContentStore(Path.of("store"), -1));
+        }
+    }
+
+    @Nested
+    class CopyTo {
+
+        @Test
+        void happyFlow(@TempDir Path dir) throws IOException {
+            ContentStore store = new ContentStore(dir.resolve("store"), 100);
+            Path file = Files.writeString(dir.resolve("abc-3"), "abc");
+            store.store(file);
+            Path target = dir.resolve("target");
+            Assertions.assertTrue(store.copyTo("abc-3", target));
+            Assertions.assertEquals("abc", Files.readString(target));
+        }
+
+        @Test
+        void notStored(@TempDir Path dir) {
+            ContentStore store = new ContentStore(dir.resolve("store"), 100);
+            Assertions.assertFalse(store.copyTo("abc-3", dir.resolve("target")));
+        }
+    }
+
+    @Nested
+    class Store {
+
+        @Test
+        void evictLeastRecentlyUsed(@TempDir Path dir) throws IOException {
+            Path storeDir = dir.resolve("store");
+            ContentStore store = new ContentStore(storeDir, 6);
+            store.store(Files.writeString(dir.resolve("a-3"), "aaa"));
+            store.store(Files.writeString(dir.resolve("b-3"), "bbb"));
+            Files.setLastModifiedTime(storeDir.resolve("a-3"), FileTime.fromMillis(1000));
+            Files.setLastModifiedTime(storeDir.resolve("b-3"), FileTime.fromMillis(2000));
+            store.store(Files.writeString(dir.resolve("c-3"), "ccc"));
+            Assertions.assertFalse(Files.exists(storeDir.resolve("a-3")));
+            Assertions.assertTrue(Files.exists(storeDir.resolve("b-3")));
+            Assertions.assertTrue(Files.exists(storeDir.resolve("c-3")));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.updater;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+class DeltaPatchTest {
+
+    @Nested
+    class CreateAndApply {
+
+        @Test
+        void changedContent(@TempDir Path dir) throws IOException {
+            byte[] old = new byte[100_000];
+            new Random(1).nextBytes(old);
+            byte[] updated = old.clone();
+            updated[500] ^= 1;
+            updated[70_000] ^= 1;
+            assertRoundTrip(dir, old, updated);
+        }
+
+        @Test
+        void insertedContent(@TempDir Path dir) throws IOException {
+            byte[] old = new byte[10_000];
+            new Random(2).nextBytes(old);
+            byte[] updated = new byte[old.length + 10];
+            System.arraycopy(old, 0, updated, 0, 5000);
+            System.arraycopy(old, 5000, updated, 5010, 5000);
+            assertRoundTrip(dir, old, updated);
+        }
+
+        @Test
+        void smallerThanBlock(@TempDir Path dir) throws IOException {
+            assertRoundTrip(dir, new byte[]{1, 2, 3}, new byte[]{4, 5});
+        }
+
+        @Test
+        void patchSmallerThanFile(@TempDir Path dir) throws IOException {
+            byte[] old = new byte[100_000];
+            new Random(3).nextBytes(old);
+            byte[] updated = old.clone();
+            updated[42] ^= 1;
+            Path source = Files.write(dir.resolve("old"), old);
+            Path target = Files.write(dir.resolve("new"), updated);
+            ByteArrayOutputStream patch = new ByteArrayOutputStream();
+            DeltaPatch.create(source, target, patch);
+            Assertions.assertTrue(patch.size() < updated.length / 10);
+        }
+    }
+
+    @Nested
+    class Apply {
+
+        @Test
+        void invalidPatch(@TempDir Path dir) throws IOException {
+            Path source = Files.write(dir.resolve("old"), new byte[]{1});
+            Assertions.assertThrows(IOException.class,
+                    () -> DeltaPatch.apply(source, new ByteArrayInputStream(new byte[]{1, 2, 3}), dir.resolve("new")));
+        }
+
+        @Test
+        void addBiggerThanExpected(@TempDir Path dir) throws IOException {
+            Path source = Files.write(dir.resolve("old"), new byte[]{1});
+            ByteArrayOutputStream patch = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(patch))) {
+                out.writeInt(0x59445031);
+                out.writeLong(10);
+                out.writeByte(1);
+                out.writeInt(Integer.MAX_VALUE);
+                out.write(new byte[1024]);
+            }
+            Path target = dir.resolve("new");
+            IOException e = Assertions.assertThrows(IOException.class,
+                    () -> DeltaPatch.apply(source, new ByteArrayInputStream(patch.toByteArray()), target));
+            Assertions.assertEquals("Patch result is bigger than expected.", e.getMessage());
+            Assertions.assertEquals(0, Files.size(target));
+        }
+    }
+
+    private static void assertRoundTrip(Path dir, byte[] old, byte[] updated) throws IOException {
+        Path source = Files.write(dir.resolve("old"), old);
+        Path target = Files.write(dir.resolve("new"), updated);
+        ByteArrayOutputStream patch = new ByteArrayOutputStream();
+        DeltaPatch.create(source, target, patch);
+        Path result = dir.resolve("result");
+        DeltaPatch.apply(source, new ByteArrayInputStream(patch.toByteArray()), result);
+        Assertions.assertArrayEquals(updated, Files.readAllBytes(result));
+    }
+}
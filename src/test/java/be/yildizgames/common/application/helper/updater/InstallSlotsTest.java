@@ -0,0 +1,109 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.updater;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class InstallSlotsTest {
+
+    @Nested
+    class Constructor {
+
+        @Test
+        void noMarker(@TempDir Path dir) {
+            InstallSlots slots = new InstallSlots(dir);
+            Assertions.assertEquals(dir.resolve("a"), slots.current());
+            Assertions.assertEquals(dir.resolve("b"), slots.next());
+            Assertions.assertFalse(slots.isSwitchPending());
+        }
+
+        @Test
+        void withMarker(@TempDir Path dir) throws IOException {
+            Files.writeString(dir.resolve(InstallSlots.MARKER), "b");
+            Assertions.assertEquals(dir.resolve("b"), InstallSlots.active(dir));
+            Assertions.assertEquals(dir.resolve("a"), new InstallSlots(dir).next());
+        }
+    }
+
+    @Nested
+    class Prepare {
+
+        @Test
+        void copyCurrent(@TempDir Path dir) throws IOException {
+            Files.writeString(Files.createDirectories(dir.resolve("a").resolve("lib")).resolve("x.jar"), "x");
+            Files.writeString(Files.createDirectories(dir.resolve("b")).resolve("stale"), "stale");
+            InstallSlots slots = new InstallSlots(dir);
+            slots.prepare();
+            Assertions.assertEquals("x", Files.readString(dir.resolve("b").resolve("lib").resolve("x.jar")));
+            Assertions.assertTrue(Files.notExists(dir.resolve("b").resolve("stale")));
+        }
+
+        @Test
+        void cancelPendingSwitch(@TempDir Path dir) throws IOException {
+            InstallSlots slots = new InstallSlots(dir);
+            slots.activate();
+            Assertions.assertTrue(slots.isSwitchPending());
+            slots.prepare();
+            Assertions.assertFalse(slots.isSwitchPending());
+        }
+    }
+
+    @Nested
+    class Rebase {
+
+        @Test
+        void inCurrentSlot(@TempDir Path dir) {
+            InstallSlots slots = new InstallSlots(dir);
+            Assertions.assertEquals(dir.resolve("b").resolve("lib").resolve("x.jar"), slots.rebase(dir.resolve("a").resolve("lib").resolve("x.jar")));
+        }
+
+        @Test
+        void outsideCurrentSlot(@TempDir Path dir) {
+            InstallSlots slots = new InstallSlots(dir);
+            Path path = dir.resolve("other").resolve("x.jar");
+            Assertions.assertEquals(path, slots.rebase(path));
+        }
+    }
+
+    @Nested
+    class Activate {
+
+        @Test
+        void switchAndRollback(@TempDir Path dir) throws IOException {
+            Files.createDirectories(dir.resolve("a"));
+            InstallSlots slots = new InstallSlots(dir);
+            slots.prepare();
+            slots.activate();
+            Assertions.assertEquals(dir.resolve("b"), slots.active());
+            Assertions.assertEquals(dir.resolve("a"), slots.current());
+            slots.rollback();
+            Assertions.assertEquals(dir.resolve("a"), slots.active());
+        }
+
+        @Test
+        void rollbackWithoutPreviousVersion(@TempDir Path dir) {
+            InstallSlots slots = new InstallSlots(dir);
+            Assertions.assertThrows(IllegalStateException.class, slots::rollback);
+        }
+    }
+}
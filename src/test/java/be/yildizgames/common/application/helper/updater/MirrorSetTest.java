@@ -0,0 +1,114 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.updater;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+
+class MirrorSetTest {
+
+    private static final URI FILE = URI.create("http://primary.test/app/lib/a.jar");
+
+    @Nested
+    class Probe {
+
+        @Test
+        void empty() {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> MirrorSet.probe(HttpClient.newHttpClient(), List.of(), null));
+        }
+
+        @Test
+        void unreachableRankedLast() throws IOException {
+            var closed = closedPort();
+            var set = MirrorSet.probe(HttpClient.newHttpClient(),
+                    List.of("http://localhost:" + closed + "/app/manifest.xml", "http://localhost:" + closed + "/other/manifest.xml"),
+                    Duration.ofSeconds(5));
+            set.transferred(URI.create("http://localhost:" + closed + "/other/lib/a.jar"), 1000, 1000);
+            Assertions.assertEquals("http://localhost:" + closed + "/other/manifest.xml", set.manifests().getFirst());
+        }
+
+        @Test
+        void silentMirrorWithoutTimeout() throws IOException {
+            try (var silent = new ServerSocket(0)) {
+                var closed = closedPort();
+                var start = System.nanoTime();
+                var set = MirrorSet.probe(HttpClient.newHttpClient(),
+                        List.of("http://localhost:" + closed + "/app/manifest.xml", "http://localhost:" + silent.getLocalPort() + "/app/manifest.xml"),
+                        null);
+                Assertions.assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(MirrorSet.PROBE_TIMEOUT.multipliedBy(2)) < 0);
+                Assertions.assertEquals(2, set.manifests().size());
+            }
+        }
+    }
+
+    @Nested
+    class Candidates {
+
+        @Test
+        void singleMirror() {
+            var set = MirrorSet.probe(HttpClient.newHttpClient(), List.of("http://primary.test/app/manifest.xml"), null);
+            set.withBase(URI.create("http://primary.test/app/"));
+            Assertions.assertEquals(List.of(FILE), set.candidates(FILE));
+        }
+
+        @Test
+        void withoutBase() throws IOException {
+            var set = unreachable();
+            Assertions.assertEquals(List.of(FILE), set.candidates(FILE));
+        }
+
+        @Test
+        void outsideBase() throws IOException {
+            var set = unreachable();
+            set.withBase(URI.create("http://primary.test/other/"));
+            Assertions.assertEquals(List.of(FILE), set.candidates(FILE));
+        }
+
+        @Test
+        void resolvedOnEachMirror() throws IOException {
+            var closed = closedPort();
+            var set = MirrorSet.probe(HttpClient.newHttpClient(),
+                    List.of("http://localhost:" + closed + "/a/manifest.xml", "http://localhost:" + closed + "/b/manifest.xml"),
+                    Duration.ofSeconds(5));
+            set.withBase(URI.create("http://primary.test/app/"));
+            set.transferred(URI.create("http://localhost:" + closed + "/b/x"), 1000, 1000);
+            Assertions.assertEquals(List.of(
+                    URI.create("http://localhost:" + closed + "/b/lib/a.jar"),
+                    URI.create("http://localhost:" + closed + "/a/lib/a.jar")), set.candidates(FILE));
+        }
+    }
+
+    private static MirrorSet unreachable() throws IOException {
+        var closed = closedPort();
+        return MirrorSet.probe(HttpClient.newHttpClient(),
+                List.of("http://localhost:" + closed + "/a/manifest.xml", "http://localhost:" + closed + "/b/manifest.xml"),
+                Duration.ofSeconds(5));
+    }
+
+    private static int closedPort() throws IOException {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.updater;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Optional;
+
+class StreamingChecksumTest {
+
+    private static final Path FILE = Path.of("lib", "a.jar");
+
+    private static final String SHA_256_ABC = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+    @Nested
+    class Adler32 {
+
+        @Test
+        void matches() {
+            StreamingChecksum.Verification v = StreamingChecksum.adler32().start(FILE, 0x024d0127).orElseThrow();
+            byte[] data = "abc".getBytes(StandardCharsets.UTF_8);
+            v.update(data, 0, data.length);
+            Assertions.assertTrue(v.matches());
+        }
+    }
+
+    @Nested
+    class Digest {
+
+        @Test
+        void matches() {
+            StreamingChecksum.Verification v = StreamingChecksum.digest("SHA-256", f -> f.equals(FILE) ? Optional.of(SHA_256_ABC) : Optional.empty()).start(FILE, 0).orElseThrow();
+            byte[] data = "abc".getBytes(StandardCharsets.UTF_8);
+            v.update(data, 0, 1);
+            v.update(data, 1, 2);
+            Assertions.assertTrue(v.matches());
+        }
+
+        @Test
+        void mismatch() {
+            StreamingChecksum.Verification v = StreamingChecksum.digest("SHA-256", f -> Optional.of(SHA_256_ABC)).start(FILE, 0).orElseThrow();
+            byte[] data = "abd".getBytes(StandardCharsets.UTF_8);
+            v.update(data, 0, data.length);
+            Assertions.assertFalse(v.matches());
+        }
+
+        @Test
+        void unknownExpectedValue() {
+            Assertions.assertTrue(StreamingChecksum.digest("SHA-256", f -> Optional.empty()).start(FILE, 0).isEmpty());
+        }
+
+        @Test
+        void unsupportedAlgorithm() {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> StreamingChecksum.digest("unknown", f -> Optional.empty()));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2021-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.updater;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class UpdateHelperTest {
+
+    @Nested
+    class PhaseListener {
+
+        @Test
+        void checkRecordedWhenServerUnreachable(@TempDir Path dir) throws IOException {
+            var port = closedPort();
+            List<String> started = new CopyOnWriteArrayList<>();
+            List<String> completed = new CopyOnWriteArrayList<>();
+            AtomicBoolean failed = new AtomicBoolean();
+            UpdateHelper helper = new UpdateHelper().withPhaseListener(new UpdatePhaseListener() {
+                @Override
+                public void phaseStarted(String phase) {
+                    started.add(phase);
+                }
+
+                @Override
+                public void phaseCompleted(String phase, long start, long end) {
+                    completed.add(phase);
+                }
+            });
+            helper.update("http://localhost:" + port + "/app/manifest.xml", dir.resolve("archive").toString(), Duration.ZERO, 5,
+                    List.of(new UpdateDownloadListener() {
+                        @Override
+                        public void downloadFailure(Throwable t) {
+                            failed.set(true);
+                        }
+                    }));
+            Assertions.assertTrue(failed.get());
+            Assertions.assertEquals(List.of(UpdateHelper.PHASE_CHECK), started);
+            Assertions.assertEquals(List.of(UpdateHelper.PHASE_CHECK), completed);
+        }
+    }
+
+    private static int closedPort() throws IOException {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
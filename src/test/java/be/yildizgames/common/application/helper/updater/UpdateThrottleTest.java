@@ -0,0 +1,107 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2018-2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+package be.yildizgames.common.application.helper.updater;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class UpdateThrottleTest {
+
+    @Nested
+    class Run {
+
+        @Test
+        void firstCheck() {
+            UpdateThrottle throttle = new UpdateThrottle(null);
+            Assertions.assertTrue(throttle.run("url", Duration.ofMinutes(5), () -> true));
+        }
+
+        @Test
+        void delayNotElapsed() {
+            UpdateThrottle throttle = new UpdateThrottle(null);
+            throttle.checked("url", LocalDateTime.now());
+            AtomicInteger calls = new AtomicInteger();
+            Assertions.assertFalse(throttle.run("url", Duration.ofMinutes(5), () -> calls.incrementAndGet() > 0));
+            Assertions.assertEquals(0, calls.get());
+        }
+
+        @Test
+        void delayElapsed() {
+            UpdateThrottle throttle = new UpdateThrottle(null);
+            throttle.checked("url", LocalDateTime.now().minusMinutes(10));
+            Assertions.assertTrue(throttle.run("url", Duration.ofMinutes(5), () -> true));
+        }
+
+        @Test
+        void concurrentCallsShareCheck() throws Exception {
+            UpdateThrottle throttle = new UpdateThrottle(null);
+            AtomicInteger calls = new AtomicInteger();
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            CompletableFuture<Boolean> first = CompletableFuture.supplyAsync(() -> throttle.run("url", Duration.ZERO, () -> {
+                calls.incrementAndGet();
+                started.countDown();
+                await(release);
+                return true;
+            }));
+            Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<Boolean> second = new CompletableFuture<>();
+            Thread thread = new Thread(() -> second.complete(throttle.run("url", Duration.ZERO, () -> {
+                calls.incrementAndGet();
+                return false;
+            })));
+            thread.start();
+            while (thread.getState() != Thread.State.WAITING && !second.isDone()) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            Assertions.assertTrue(first.get(5, TimeUnit.SECONDS));
+            Assertions.assertTrue(second.get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(1, calls.get());
+        }
+    }
+
+    @Nested
+    class Persistence {
+
+        @Test
+        void keptAcrossInstances(@TempDir Path dir) {
+            Path file = dir.resolve("throttle.properties");
+            new UpdateThrottle(file).checked("url", LocalDateTime.now());
+            AtomicInteger calls = new AtomicInteger();
+            Assertions.assertFalse(new UpdateThrottle(file).run("url", Duration.ofMinutes(5), () -> calls.incrementAndGet() > 0));
+            Assertions.assertEquals(0, calls.get());
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}